@@ -2,10 +2,13 @@
  * Represents some angle in degrees with value 0 inclusive to 360 disclusive.
  * It offers valuable operations on the angle, most notably the the degrees at
  * which a point lies relative to another, the difference in angles and whether
- * an angle is greater/less than another
+ * an angle is greater/less than another. The static pseudo-angle methods order
+ * directions the same way without trigonometry or creating Angles, for loops
+ * that compare many of them.
  *
  * DEPENDENCIES:
  *  Point.java
+ *  Predicates.java
  * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
  *
  * @author Heinrich Kreuser
@@ -36,6 +39,8 @@
  *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  *         SOFTWARE.
  ******************************************************************************/
+import java.util.Arrays;
+
 public class Angle implements Comparable<Angle> {
 
   /** Stores the double value of this Angle element of [0, 360) */
@@ -296,6 +301,137 @@ public class Angle implements Comparable<Angle> {
    */
   public static final double EPSILON = 1E-6;
 
+  /*****************************************************************************
+   *                           PSEUDO-ANGLES
+   ****************************************************************************/
+  /*
+   * The methods below order directions without atan2 or Angle objects. A
+   * direction is given by a vector (x, y), or by a point relative to another,
+   * and its angle is measured counter-clockwise from the positive x axis, in
+   * [0, 360) like the angles above. Comparisons are exact: they only look at
+   * the signs of coordinates and of cross products (see Predicates).
+   */
+  /**
+   * Calculates the diamond angle of a vector: a number in [0, 4) that grows
+   * with the angle of the vector, 0 at 0 degrees, 1 at 90, 2 at 180 and 3 at
+   * 270 degrees. It takes one division instead of an atan2, so it is cheap
+   * to use as a sort key.
+   *
+   * @param x,y the vector, 0 for the zero vector
+   * @return the diamond angle of the vector
+   */
+  public static double pseudo(double x, double y) {
+    if (x == 0 && y == 0) {
+      return 0;
+    }
+    if (y >= 0) {
+      return (x >= 0) ? y/(x+y) : 1 - x/(y-x);
+    }
+    return (x < 0) ? 2 - y/(-x-y) : 3 + x/(x-y);
+  }
+  /** Point parameter version of the above, for p relative to relativeTo */
+  public static double pseudo(Point p, Point relativeTo) {
+    return pseudo(p.x-relativeTo.x, p.y-relativeTo.y);
+  }
+
+  /**
+   * Compares the angles of two vectors. Vectors in the upper half (0 up to
+   * 180 degrees) come first; within a half, a comes first if b lies
+   * counter-clockwise of it.
+   *
+   * @return -1 if a has the smaller angle, +1 if b does and 0 if they point
+   *         in the same direction
+   */
+  public static int compare(double ax, double ay, double bx, double by) {
+    int halfA = half(ax, ay), halfB = half(bx, by);
+    if (halfA != halfB) {
+      return halfA < halfB ? -1 : +1;
+    }
+    return -cross(ax, ay, bx, by);
+  }
+  /** Point parameter version of the above, for a and b relative to o */
+  public static int compare(Point a, Point b, Point o) {
+    return compare(a.x-o.x, a.y-o.y, b.x-o.x, b.y-o.y);
+  }
+
+  /**
+   * The exact version of lessThan() for directions: a < b if b lies less than
+   * 180 degrees counter-clockwise of a, thus if sin(b-a) > 0.
+   *
+   * @return true if the direction of a is clockwise right of that of b,
+   *         both relative to o
+   */
+  public static boolean lessThan(Point a, Point b, Point o) {
+    return Predicates.orient2d(o, a, b) > 0;
+  }
+
+  /**
+   * Checks whether the vector p lies strictly inside the counter-clockwise
+   * sweep from vector a to vector b. Unlike isBetween() above, a and b are
+   * not swapped, so the sweep may be larger than 180 degrees. If a and b
+   * point in the same direction the sweep is a full turn.
+   *
+   * @return true if p lies between a and b counter-clockwise
+   */
+  public static boolean isBetween(double px, double py, double ax, double ay,
+      double bx, double by) {
+    int ap = cross(ax, ay, px, py), pb = cross(px, py, bx, by);
+    int ab = cross(ax, ay, bx, by);
+    if (ab > 0) {
+      return ap > 0 && pb > 0;
+    }
+    if (ab < 0) {
+      // p is outside only inside the sweep from b to a, which is convex
+      return ap > 0 || pb > 0;
+    }
+    if (ax*bx + ay*by < 0) {
+      return ap > 0;
+    }
+    return ap != 0 || ax*px + ay*py < 0;
+  }
+
+  /**
+   * Sorts the given ids by the angle of their points relative to (x, y),
+   * counter-clockwise from the positive x axis. The ids are sorted on their
+   * diamond angles first, packed with them into longs so that no objects are
+   * made, after which an insertion sort with compare() puts directions that
+   * were too close for the diamond angles in their exact order.
+   *
+   * @param xs,ys the coordinates of the points
+   * @param ids the ids of the points to sort, sorted in place
+   * @param x,y the point the angles are relative to
+   */
+  public static void sortByAngle(double[] xs, double[] ys, int[] ids, double x,
+      double y) {
+    long[] keys = new long[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      double p = pseudo(xs[ids[i]]-x, ys[ids[i]]-y);
+      // the diamond angle on 30 bits in the high half, the id in the low half
+      keys[i] = (long)(p * (1 << 28)) << 32 | (ids[i] & 0xFFFFFFFFL);
+    }
+    Arrays.sort(keys);
+    for (int i = 0; i < ids.length; i++) {
+      int id = (int)keys[i];
+      double ix = xs[id]-x, iy = ys[id]-y;
+      int j = i;
+      while (j > 0 && compare(ix, iy, xs[ids[j-1]]-x, ys[ids[j-1]]-y) < 0) {
+        ids[j] = ids[j-1];
+        j--;
+      }
+      ids[j] = id;
+    }
+  }
+
+  /* 0 for vectors from 0 up to 180 degrees, 1 for the rest */
+  private static int half(double x, double y) {
+    return (y < 0 || (y == 0 && x < 0)) ? 1 : 0;
+  }
+
+  /* The exact sign of the cross product of vectors a and b */
+  private static int cross(double ax, double ay, double bx, double by) {
+    return Predicates.orient2d(0, 0, ax, ay, bx, by);
+  }
+
   /*****************************************************************************
    *                              UTILITIES
    ****************************************************************************/
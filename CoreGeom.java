@@ -35,9 +35,10 @@ public class CoreGeom {
    * @param eye the Point that we want to check whether the corner is visible to
    */
   public static boolean isVisible(Point corner, Point[] shape, Point eye) {
-    Angle eye_corner = new Angle(eye, corner);
-    Angle min = null;
-    Angle max = null;
+    // the directions from the corner are compared without creating Angles,
+    // so min and max hold the points that span the widest angle so far
+    Point min = null;
+    Point max = null;
     Angle centre = null;
     // get all points that aren't corner on a hashmap mapped to their distances to p
     HashMap<Point, Double> sortMe = new HashMap<>();
@@ -52,16 +53,16 @@ public class CoreGeom {
         if (centre == null) {
           return true;
         } else {
-          return !(min.lessThan(eye_corner) && eye_corner.lessThan(max));
+          return !(Angle.lessThan(min, eye, corner)
+            && Angle.lessThan(eye, max, corner));
         }
       }
-      Angle p_corner = new Angle(p, corner);
       if (min == null) {
-        min = p_corner;
+        min = p;
       } else if (centre == null) {
-        max = p_corner;
-        Angle a = min.copy();
-        Angle b = max.copy();
+        max = p;
+        Angle a = new Angle(min, corner);
+        Angle b = new Angle(max, corner);
         // now find out which one is actually min and which is actually max
         // get centre angle
         centre = new Angle(a, b);
@@ -72,17 +73,19 @@ public class CoreGeom {
           centre = new Angle(centre.angle+180);
         }
         if (b.lessThan(centre)) {
-          min = b;
-          max = a;
+          Point swap = min;
+          min = max;
+          max = swap;
         }
         // reset min and max
         // with new angle, shoot in that direction as far as you can
       } else {
-        if ((p_corner).lessThan(min)) min = p_corner;
-        if ((max).lessThan(p_corner)) max = p_corner;
+        if (Angle.lessThan(p, min, corner)) min = p;
+        if (Angle.lessThan(max, p, corner)) max = p;
       }
     }
-    return !(min.lessThan(eye_corner) && eye_corner.lessThan(max));
+    return !(Angle.lessThan(min, eye, corner)
+      && Angle.lessThan(eye, max, corner));
   }
 
   /***************************************************************************
@@ -184,212 +187,6 @@ public class CoreGeom {
   /***************************************************************************
    *                        BIG METHODS
    ***************************************************************************/
-  /**
-   * Adds points inbetween every point in the corners of the shape so that the
-   * distance between all the points in the new shape are less than or equal to
-   * the given density
-   */
-  private static Point[] densify(Point[] shape, double density) {
-    ArrayList<Point> densify = new ArrayList<>();
-    int n = shape.length;
-    int total = 0;
-    for (int i = 0; i < n; i++) {
-      int j = (i+1 == n) ? 0 : i+1;
-      Point start = shape[i];
-      Point end = shape[j];
-      // get distance between them
-      double dist = start.dist(end);
-      // check how many we can fit in
-      int amnt = (int)Math.ceil(dist / density);
-      // get distance between each
-      double spacing = dist / (double)amnt;
-      // get direction of of the end relative to start
-      double degrees = new Angle(end, start).angle;
-      // place each point with distance spacing from each other
-      for (double space = 0; space < dist; space += spacing) {
-        // create a point in direction of degrees
-        Point p = start.directed(degrees, space);
-        if (Point.epsilon(p.x, (int)p.x)) {
-          p.x = (int)p.x;
-        }
-        if (Point.epsilon(p.y, (int)p.y)) {
-          p.y = (int)p.y;
-        }
-        densify.add(p);
-        total++;
-      }
-    }
-    Point[] toReturn = new Point[total];
-    for (int i = 0; i < total; i++) {
-      toReturn[i] = densify.get(i);
-    }
-    return toReturn;
-  }
-
-  /**
-   * Inserts the least amount of points neccesary between s and e in order to
-   * connect them and still be legal delaunay triangulation.
-   * For when two points are intended to be connected after triangulation but
-   * are not, thus we add the minimal amount of points so that they become
-   * connected via mutual points via delaunay triangulation
-   *
-   * @param s is the starting point
-   * @param e is the end point
-   * @param all is the hashmap hosting all of the points mapped to a list
-   *        of all points that they are connected to
-   */
-  private static void correctConnection(Point s, Point e, HashMap<Point, ArrayList<Point>> all) {
-    while (!all.get(s).contains(e)) {
-      // find angle left to and right to e relative to s
-      Point min = null, max = null;
-      double minDiff = 180d, maxDiff = 180d;
-      Angle e_s = new Angle(e, s);
-      for (Point p : all.get(s)) {
-        Angle p_s = new Angle(p, s);
-        double absDiff = p_s.absDiff(e_s);
-        if ((p_s).lessThan(e_s)) { // min category
-          if (absDiff < minDiff) {
-            min = p;
-            minDiff = absDiff;
-          }
-        } else { // max category
-          if (absDiff < maxDiff) {
-            max = p;
-            maxDiff = absDiff;
-          }
-        }
-      }
-      if (!all.get(min).contains(max)) {
-        System.out.println("min must be connected to max");
-        System.exit(0);
-      }
-      // get circumcentre c of min-s-max
-      Point c = cc(min, s, max);
-      //create point p to insert
-      Angle c_s = new Angle(c, s);
-      double diff = c_s.absDiff(e_s);
-      double d = 0.99*2*c.dist(s)*Angle.cos(diff);
-      if (d > s.dist(e)) d = s.dist(e)/2d;
-      Point p = s.directed(e_s.angle, d);
-      // insert the point
-      insert(p, all);
-      if (!all.get(s).contains(p)) {
-        System.out.println("!s.contains(p)");
-        System.exit(0);
-      }
-      // set the starting node as p
-      s = p;
-    }
-  }
-
-  /**
-   * Inserts the given point into the delaunay triangulation and then updates
-   * any triangulations neccesary
-   *
-   * @param toInsert is the point to insert into the triangulation connectAll
-   * @param connectAll is the hashmap hosting all of the points mapped to a list
-   * of all points that they are connected to
-   */
-  private static void insert(Point toInsert, HashMap<Point, ArrayList<Point>> connectAll) {
-    connectAll.put(toInsert, new ArrayList<Point>(0));
-    // determine triangle
-    Point[] triangle = getTriangleContaining(toInsert, connectAll);
-    // setup connectections from toinsert to all points
-    for (Point corner : triangle) {
-      connectAll.get(toInsert).add(corner);
-      connectAll.get(corner).add(toInsert);
-    }
-    // get all angles including toInsert
-    ArrayList<Point[]> corners = new ArrayList<>(0);
-    corners.add(new Point[]{triangle[0], toInsert, triangle[1]});
-    corners.add(new Point[]{triangle[1], toInsert, triangle[2]});
-    corners.add(new Point[]{triangle[2], toInsert, triangle[0]});
-    // update connections as neccesary
-    while (!corners.isEmpty()) {
-      // create list of next corners we may need to iterate over
-      ArrayList<Point[]> nextCorners = new ArrayList<>(0);
-      // iterate through all corners
-      cornerLoop:
-      for (Point[] corner : corners) {
-        Point a = corner[0];
-        Point b = corner[2];
-        // get point c
-        Point c = null;
-        for (Point p : connectAll.get(a)) {
-          if (connectAll.get(p).contains(a) && p != toInsert) {
-            Angle a_toInsert = new Angle(a, toInsert);
-            Angle b_toInsert = new Angle(b, toInsert);
-            Angle min = (a_toInsert.lessThan(b_toInsert)) ? a_toInsert : b_toInsert;
-            Angle max = (min == a_toInsert) ? b_toInsert : a_toInsert;
-            Angle p_toInsert = new Angle(p, toInsert);
-            if (min.lessThan(p_toInsert) && p_toInsert.lessThan(max)) {
-              if (c != null) c = c.dist(toInsert) < p.dist(toInsert) ? c : p;
-              else c = p;
-            }
-          }
-        }
-        if (c == null) continue cornerLoop;
-        Point cc = cc(a, toInsert, b);
-        // if a-toInsert-b circle contains c
-        if (cc.dist(c) < cc.dist(toInsert)) {
-          // sever connection a-b
-          connectAll.get(a).remove(b);
-          connectAll.get(b).remove(a);
-          // create connection toInsert-c
-          connectAll.get(c).add(toInsert);
-          connectAll.get(toInsert).add(c);
-          // add new corners created to next list
-          nextCorners.add(new Point[]{a, toInsert, c});
-          nextCorners.add(new Point[]{c, toInsert, b});
-        }
-      }
-      // set corners list equal to next
-      corners = nextCorners;
-    }
-  }
-
-  /**
-   * Returns a length3 Point array representing the triangle which contains the
-   * given point
-   *
-   * @param point is the point we are searching the host triangle for
-   * @param all is the hashmap hosting all of the points mapped to a list
-   *        of all points that they are connected to
-   */
-  private static Point[] getTriangleContaining(Point point, HashMap<Point, ArrayList<Point>> all) {
-    // get sorted list of all points closest to point
-    HashMap<Point, Double> sortMe = new HashMap<>();
-    for (Point p : all.keySet()) {
-      sortMe.put(p, p.dist(point));
-    }
-    ArrayList<Point> closest = Core.sort(sortMe, "min");
-    if (closest.contains(point)) closest.remove(point);
-    int n = closest.size();
-    // iterate over all collection of 3 points in order of likely connected
-    maxLoop:
-    for (int max = 2; max < n; max++) {
-      Point c = closest.get(max);
-      minLoop:
-      for (int min = 0; min < max-1; min++) {
-        Point a = closest.get(min);
-        if (!all.get(c).contains(a)) continue minLoop;
-        jLoop:
-        for (int j = min+1; j < max; j++) {
-          Point b = closest.get(j);
-          if (!all.get(b).contains(a) || !all.get(b).contains(c)) continue jLoop;
-          // check if point is contained within triangle:
-          double areaSum = Point.area(a,b,point) + Point.area(a,point,c) + Point.area(point,b,c);
-          if (Point.epsilon(Point.area(a, b, c), areaSum)) {
-            return new Point[]{ a, b, c};
-          }
-        }
-      }
-    }
-    Core.log("Could not find triangle containing " +point.toString());
-    (new int[]{1})[1] = 1;;
-    return null;
-  }
-
   public static void createConnection(Point a, Point b, HashMap<Point, ArrayList<Point>> adj) {
     adj.get(a).add(b);
     adj.get(b).add(a);
@@ -402,54 +199,79 @@ public class CoreGeom {
 
   /**
    * Gets all of the triangles on the triangulated given tiangulated map
+   * Every edge is directed from its end point with the smaller degree to the
+   * one with the larger degree (Chiba and Nishizeki, "Arboricity and subgraph
+   * listing algorithms", 1985). Every triangle is then found exactly once, at
+   * its corner with the smallest degree, by marking that corner's outgoing
+   * neighbours and checking theirs. For a planar graph such as a
+   * triangulation every vertex has few outgoing edges, so this takes O(E)
+   * time instead of checking all pairs of neighbours.
    *
    * @param all is the adjacency list of all points mapped to a list of points
    *        that they are connected/adj to
-   * @return a list of all triangles(in the form of length3 point arrays)
+   * @return a list of all triangles(in the form of length3 point arrays), each
+   *         in counter-clockwise order
    */
   public static ArrayList<Point[]> getTriangles(HashMap<Point, ArrayList<Point>> all) {
-    ArrayList<Point[]> triangles = new ArrayList<>(0);
-    // create copy of all and name it 'adj'
-    HashMap<Point, ArrayList<Point>> adj = new HashMap<>();
-    for (Point p : all.keySet()) {
-      ArrayList<Point> l = new ArrayList<>(all.get(p).size());
-      for (Point adjP : all.get(p)) {
-        l.add(adjP);
-      }
-      adj.put(p, l);
-    }
-    // for each point, create triangle via adj list
-    while (!adj.isEmpty()) {
-      // get v = point with adj list of shortest length
-      Point v = null;
-      int vLen = 0;
-      // get point with shortest adj list length
-      for (Point p : adj.keySet()) {
-        int pLen = adj.get(p).size();
-        if (v == null || pLen < vLen) {
-          v = p;
-          vLen = pLen;
+    int n = all.size();
+    Point[] points = all.keySet().toArray(new Point[n]);
+    HashMap<Point, Integer> ids = new HashMap<>(2 * n);
+    for (int v = 0; v < n; v++) {
+      ids.put(points[v], v);
+    }
+    int[] degree = new int[n];
+    for (int v = 0; v < n; v++) {
+      degree[v] = all.get(points[v]).size();
+    }
+    // the outgoing neighbours of every vertex, one list after the other
+    int[] start = new int[n + 1];
+    int[] out = new int[0];
+    int[] mark = new int[n];
+    Arrays.fill(mark, -1);
+    int count = 0;
+    for (int v = 0; v < n; v++) {
+      start[v] = count;
+      for (Point p : all.get(points[v])) {
+        Integer u = ids.get(p);
+        if (u == null || mark[u] == v || !precedes(v, u, degree)) {
+          continue;
         }
-      }
-      // create triangles with all unique pairs in adjV that are also adj to each other
-      ArrayList<Point> adjV = adj.get(v); // pointer-shortcut
-
-      for (Point[] pair : uniquePairs(adjV)) {
-        Point s = pair[0];
-        Point t = pair[1];
-        if (adj.get(s).contains(t)) {
-          triangles.add(new Point[]{v, s, t});
+        mark[u] = v;
+        if (count == out.length) {
+          out = Arrays.copyOf(out, Math.max(2 * count, 16));
+        }
+        out[count++] = u;
+      }
+    }
+    start[n] = count;
+    // find every triangle at its first corner
+    Arrays.fill(mark, -1);
+    ArrayList<Point[]> triangles = new ArrayList<>(count / 3 + 1);
+    for (int v = 0; v < n; v++) {
+      for (int i = start[v]; i < start[v+1]; i++) {
+        mark[out[i]] = v;
+      }
+      for (int i = start[v]; i < start[v+1]; i++) {
+        int u = out[i];
+        for (int j = start[u]; j < start[u+1]; j++) {
+          int w = out[j];
+          if (mark[w] == v) {
+            Point a = points[v], b = points[u], c = points[w];
+            triangles.add(Predicates.orient2d(a, b, c) < 0
+              ? new Point[]{a, c, b}
+              : new Point[]{a, b, c});
+          }
         }
       }
-      // remove v from all in adjV's adj lists, then remove v from adjmap
-      for (Point w : adjV) {
-        adj.get(w).remove(v);
-      }
-      adj.remove(v);
     }
     return triangles;
   }
 
+  /* Whether the edge between v and u is directed from v to u */
+  private static boolean precedes(int v, int u, int[] degree) {
+    return degree[v] < degree[u] || (degree[v] == degree[u] && v < u);
+  }
+
   public static ArrayList<Point[]> uniquePairs(ArrayList<Point> l) {
     ArrayList<Point[]> uniquePairs = new ArrayList<>(0);
     int n = l.size();
@@ -836,6 +658,11 @@ public class CoreGeom {
     graph.get(b).add(a);
   }
 
+  /**
+   * Removes the point and all of its connections from the graph. In a
+   * triangulation this leaves a hole behind; Triangulation.remove() fills the
+   * hole with new Delaunay triangles instead.
+   */
   public static void remove(Point toRemove, HashMap<Point, ArrayList<Point>> graph) {
     // sever connections p -> toRemove
     for (Point p : graph.get(toRemove)) {
@@ -953,4 +780,35 @@ public class CoreGeom {
     }
     return lineLength;
   }
+
+  /**
+   * Same as the above, but with the points of the line in a buffer.
+   *
+   * @param line the points of the line, in order
+   * @return the calculated path length of the line.
+   */
+  public static double lineLength(PointBuffer line) {
+    double lineLength = 0;
+    int N = line.size();
+    for (int i = 0; i < N - 1; i++) {
+      double dx = line.x(i + 1) - line.x(i);
+      double dy = line.y(i + 1) - line.y(i);
+      double dz = line.z(i + 1) - line.z(i);
+      lineLength += Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+    return lineLength;
+  }
+
+  /**
+   * Creates n points spread uniformly over the rectangle [0, w) x [0, h).
+   *
+   * @return the points, in a buffer
+   */
+  public static PointBuffer randomBuffer(double w, double h, int n) {
+    PointBuffer ps = new PointBuffer(n, false);
+    for (int i = 0; i < n; i++) {
+      ps.add(Math.random() * w, Math.random() * h);
+    }
+    return ps;
+  }
 }
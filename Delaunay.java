@@ -7,7 +7,10 @@
  *
  * DEPENDENCIES:
  *  Point.java
- *  Angle.java
+ *  PointBuffer.java
+ *  PointMap.java
+ *  Predicates.java
+ *  Triangulation.java
  * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
  *
  * HOW TO USE:
@@ -15,6 +18,14 @@
  *  Call delaunize() and use your arraylist of points as the parameter ('all')
  *  It will return a HashMap of Points mapped to a list of points that they are
  *  connected to after the triangulation (this is called an adjacency list)
+ *  If you do not need the adjacency list, call triangulation() instead. It
+ *  returns the index based Triangulation that delaunize() is built on.
+ *  incremental() builds the same Triangulation by inserting the points one at
+ *  a time instead, which leaves it ready for further calls to insert().
+ *  Points that lie within some epsilon of each other (e.g. repeated GPS fixes)
+ *  can be merged first with duplicates(), or by passing epsilon to delaunize().
+ *  Every method also takes a PointBuffer instead of an arraylist, which keeps
+ *  millions of points in flat arrays instead of Point objects.
  *
  * @author Heinrich Kreuser
  *
@@ -47,9 +58,16 @@
 //for library & sorting
 import java.util.HashMap;
 import java.util.ArrayList;
-//for sorting
-import java.util.Collections;
+//for merging duplicates
 import java.util.Arrays;
+//for randomized incremental triangulation
+import java.util.Random;
+//for parallel triangulation
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+//for sorting
 import java.util.LinkedHashMap;
 import java.util.Map;
 import static java.util.stream.Collectors.*;
@@ -65,221 +83,419 @@ public class Delaunay {
    *         to a list of all points the are connected to
    */
   public static HashMap<Point, ArrayList<Point>> delaunize(ArrayList<Point> all) {
+    return triangulation(all).toAdjacency();
+  }
+
+  /**
+   * Same as the above, but triangulates the halves of the map in parallel on
+   * the given pool.
+   *
+   * @param all the list of all Points on some map
+   * @param pool the pool to triangulate on, e.g. ForkJoinPool.commonPool()
+   */
+  public static HashMap<Point, ArrayList<Point>> delaunize(ArrayList<Point> all,
+      ForkJoinPool pool) {
+    return triangulation(all, pool).toAdjacency();
+  }
+
+  /**
+   * Creates the delaunay-triangulation of all of the given points without
+   * building the adjacency list of delaunize().
+   *
+   * @param all the list of all Points on some map
+   * @return the triangulation, where vertex i is the point at index i in all.
+   *         Points that share their coordinates with an earlier point in the
+   *         list are left without any edges.
+   */
+  public static Triangulation triangulation(ArrayList<Point> all) {
+    return triangulation(all, null, 0);
+  }
+
+  /**
+   * Same as the above, but triangulates the halves of the map in parallel on
+   * the given pool, with the default CUTOFF.
+   *
+   * @param all the list of all Points on some map
+   * @param pool the pool to triangulate on, e.g. ForkJoinPool.commonPool()
+   */
+  public static Triangulation triangulation(ArrayList<Point> all, ForkJoinPool pool) {
+    return triangulation(all, pool, CUTOFF);
+  }
+
+  /**
+   * Same as the above, with the given cutoff.
+   *
+   * @param all the list of all Points on some map
+   * @param pool the pool to triangulate on, or null to triangulate on the
+   *        calling thread only
+   * @param cutoff the amount of points below which the halves of the map are
+   *        no longer triangulated in parallel
+   */
+  public static Triangulation triangulation(ArrayList<Point> all,
+      ForkJoinPool pool, int cutoff) {
+    return triangulation(all, null, pool, cutoff);
+  }
+
+  /**
+   * Creates the delaunay-triangulation of the points that are not merged into
+   * another one, see duplicates().
+   *
+   * @param all the list of all Points on some map
+   * @param merged the point every point is merged into, from duplicates()
+   * @return the triangulation, where vertex i is the point at index i in all.
+   *         The points that are merged into another one are left without any
+   *         edges.
+   */
+  public static Triangulation triangulation(ArrayList<Point> all,
+      int[] merged) {
+    if (merged.length != all.size()) {
+      throw new IllegalArgumentException("expected " + all.size()
+        + " merged ids, got " + merged.length + "!!");
+    }
+    return triangulation(all, merged, null, 0);
+  }
+
+  /**
+   * Creates the delaunay-triangulation of the points in the given buffer,
+   * without creating a single Point.
+   *
+   * @param ps the points on some map
+   * @return the triangulation, where vertex i is point i of ps. Points that
+   *         share their coordinates with an earlier point are left without any
+   *         edges.
+   */
+  public static Triangulation triangulation(PointBuffer ps) {
+    return build(new Triangulation(ps), null, null, 0);
+  }
+
+  /**
+   * Same as the above, but triangulates the halves of the map in parallel on
+   * the given pool, with the default CUTOFF.
+   *
+   * @param pool the pool to triangulate on, e.g. ForkJoinPool.commonPool()
+   */
+  public static Triangulation triangulation(PointBuffer ps,
+      ForkJoinPool pool) {
+    return build(new Triangulation(ps), null, pool, CUTOFF);
+  }
+
+  /**
+   * Same as the above, but only triangulates the points that are not merged
+   * into another one, see duplicates().
+   *
+   * @param merged the point every point is merged into, from duplicates()
+   */
+  public static Triangulation triangulation(PointBuffer ps, int[] merged) {
+    if (merged.length != ps.size()) {
+      throw new IllegalArgumentException("expected " + ps.size()
+        + " merged ids, got " + merged.length + "!!");
+    }
+    return build(new Triangulation(ps), merged, null, 0);
+  }
+
+  /* Triangulates the points in the given list, see build() */
+  private static Triangulation triangulation(ArrayList<Point> all,
+      int[] merged, ForkJoinPool pool, int cutoff) {
+    Triangulation t = new Triangulation(all.toArray(new Point[all.size()]));
+    return build(t, merged, pool, cutoff);
+  }
+
+  /**
+   * Triangulates the vertices v of t with merged[v] == v (all of them if
+   * merged is null) by divide and conquer, in parallel on the given pool if
+   * there are more than cutoff of them.
+   */
+  private static Triangulation build(Triangulation t, int[] merged,
+      ForkJoinPool pool, int cutoff) {
     // get sorted list based on x position (if same x, take y)
-    int n = all.size();
-    Point[] sorted = new Point[all.size()];
-    for (int i = 0; i < n; i++) {
-      sorted[i] = all.get(i);
+    int[] sorted = sort(t.xs, t.ys, pool);
+    int n = sorted.length;
+    if (merged != null) {
+      n = 0;
+      for (int id : sorted) {
+        if (merged[id] == id) {
+          sorted[n++] = id;
+        }
+      }
     }
-    Arrays.sort(sorted);
+    n = unique(t, sorted, n);
     //divide into different sets
-    return triangulate(sorted);
+    Slab slab;
+    if (pool == null || n <= cutoff) {
+      slab = triangulate(t, sorted, 0, n);
+    } else {
+      slab = pool.invoke(new Triangulate(t, sorted, 0, n, Math.max(cutoff, 4)));
+    }
+    // hand the half-edges over to the triangulation for later edits
+    t.top = 6 * n;
+    t.free = slab.head;
+    t.edges = slab.edges;
+    t.outer = slab.last;
+    return t;
+  }
+
+  /**
+   * The default amount of points below which a parallel triangulation stops
+   * splitting the work over more threads
+   */
+  public static final int CUTOFF = 1 << 14;
+
+  /**
+   * Creates the constrained delaunay-triangulation of all of the given points:
+   * the given segments, such as the edges of polygons and their holes, are
+   * forced into the triangulation (see Triangulation.constrain()) without
+   * adding any points, and every other edge is as delaunay as they allow.
+   *
+   * @param all the list of all Points on some map
+   * @param segments pairs of Points from all that have to be connected. The
+   *        segments may only cross each other at their end points.
+   * @return the triangulation, where vertex i is the point at index i in all
+   */
+  public static Triangulation constrained(ArrayList<Point> all,
+      ArrayList<Point[]> segments) {
+    Triangulation t = triangulation(all);
+    HashMap<Point, Integer> ids = new HashMap<>(2 * all.size());
+    for (int v = 0; v < all.size(); v++) {
+      ids.put(all.get(v), v);
+    }
+    int near = -1;
+    for (Point[] segment : segments) {
+      int a = id(t, ids, segment[0], near);
+      int b = id(t, ids, segment[1], a);
+      t.constrain(a, b);
+      near = b;
+    }
+    return t;
+  }
+
+  /* Gets the vertex of p, or of the point p is a duplicate of */
+  private static int id(Triangulation t, HashMap<Point, Integer> ids, Point p,
+      int near) {
+    Integer id = ids.get(p);
+    if (id == null) {
+      throw new IllegalArgumentException(p + " is not one of the points!!");
+    }
+    if (t.edge(id) != -1) {
+      return id;
+    }
+    int v = t.vertexAt(p.x, p.y, near);
+    return (v == -1) ? id : v;
+  }
+
+  /**
+   * Creates the delaunay-triangulation of all of the given points by inserting
+   * them one by one (see Triangulation.insert()) instead of by divide and
+   * conquer. The points are inserted in a biased randomized insertion order,
+   * see brio(), which takes expected O(n log n) time while every walk to the
+   * next point stays short and in cache.
+   *
+   * @param all the list of all Points on some map
+   * @return the triangulation, where vertex i is the point at index i in all.
+   *         Points that share their coordinates with another point in the
+   *         list are left without any edges.
+   */
+  public static Triangulation incremental(ArrayList<Point> all) {
+    return incremental(all, 0x5DEECE66DL);
+  }
+
+  /**
+   * Same as the above, but shuffles the points with the given seed.
+   *
+   * @param all the list of all Points on some map
+   * @param seed the seed of the random insertion order
+   */
+  public static Triangulation incremental(ArrayList<Point> all, long seed) {
+    return insertAll(new Triangulation(all.toArray(new Point[all.size()])),
+      seed);
+  }
+
+  /**
+   * Same as the above, but with the points in the given buffer.
+   *
+   * @param ps the points on some map
+   * @param seed the seed of the random insertion order
+   * @return the triangulation, where vertex i is point i of ps
+   */
+  public static Triangulation incremental(PointBuffer ps, long seed) {
+    return insertAll(new Triangulation(ps), seed);
+  }
+
+  /* Inserts every vertex of t in BRIO order */
+  private static Triangulation insertAll(Triangulation t, long seed) {
+    for (int v : brio(t.xs, t.ys, new Random(seed))) {
+      t.insertVertex(v, t.last);
+    }
+    return t;
   }
 
   /**
-   * Takes in a set of points and triangulates them using delaunay triangulation.
-   * If the set's size > 3,
+   * Takes in a range of sorted vertices and triangulates them using delaunay
+   * triangulation.
+   * If the range's size > 3,
    *    it divides it in half and recursively feeds itself both halves.
    * If the size <= 3,
-   *    it sets up connections between all points in the set.
-   * When it gets two halves back, it will send them through merge() before returning it
-   * @param set is the set of points to triangulate, sorted in delaunize()
-   * @return the triangulated graph where all points are mapped to a list of points
-   *         that they are connected to.
+   *    it sets up connections between all vertices in the range.
+   * When it gets two halves back, it will send them through merge()
+   * @param t the triangulation to add the edges to
+   * @param sorted the vertices, sorted in triangulation()
+   * @param lo,hi the range of sorted (lo inclusive, hi exclusive) to triangulate
+   * @return the half-edges that the range has left over, along with the
+   *         range's convex hull
    */
-  private static HashMap<Point, ArrayList<Point>> triangulate(Point[] set) {
+  private static Slab triangulate(Triangulation t, int[] sorted, int lo, int hi) {
     //divide if more than three
-    int setlen = set.length;
-    if (setlen > 3){
-      int split = setlen/2;
-      Point[] left = Arrays.copyOfRange(set, 0, split);
-      Point[] right = Arrays.copyOfRange(set, split, setlen);
-  		return merge(triangulate(left), triangulate(right));
+    int setlen = hi - lo;
+    if (setlen > 3) {
+      int split = lo + setlen/2;
+      Slab left = triangulate(t, sorted, lo, split);
+      Slab right = triangulate(t, sorted, split, hi);
+      int ldi = left.last, rdi = right.first;
+      Slab merged = left.join(t, right);
+      merge(t, merged, ldi, rdi);
+      return merged;
     }
     // setup triangulation in small scale
-    HashMap<Point, ArrayList<Point>> triangulated = new HashMap<>();
-    // check for colinear points if 3
-    if (setlen == 3 && Point.orientation(set[0], set[1], set[2]).equals("colinear")) {
-      // find the point at the center
-      Arrays.sort(set); // sorting it will make that the centre point is at index 1 due to colinearcy
-      triangulated.put(set[0], new ArrayList<>(Arrays.asList(set[1])));
-      triangulated.put(set[1], new ArrayList<>(Arrays.asList(set[0], set[2])));
-      triangulated.put(set[2], new ArrayList<>(Arrays.asList(set[1])));
-    } else { //regular setup if non colinear points: connect all point to all other points
-      int len = set.length;
-      for (int i = 0; i < len; i++) { // all indices
-        ArrayList<Point> l = new ArrayList<Point>(0);
-        for (int j = 0; j < i; j++) { // all before curr index
-          l.add(set[j]);
-        }
-        for (int j = i+1; j < len; j++) { // all after curr index
-          l.add(set[j]);
-        }
-        triangulated.put(set[i], l);
+    Slab slab = new Slab(t, 6*lo, 6*hi);
+    if (setlen == 2) {
+      int a = t.makeEdge(sorted[lo], sorted[lo+1], slab.pop(t));
+      slab.first = a;
+      slab.last = Triangulation.sym(a);
+    } else if (setlen == 3) {
+      int s1 = sorted[lo], s2 = sorted[lo+1], s3 = sorted[lo+2];
+      int a = t.makeEdge(s1, s2, slab.pop(t));
+      int b = t.makeEdge(s2, s3, slab.pop(t));
+      t.splice(Triangulation.sym(a), b);
+      slab.first = a;
+      slab.last = Triangulation.sym(b);
+      // close the triangle unless the points are colinear
+      if (t.ccw(s1, s2, s3)) {
+        t.connect(b, a, slab.pop(t));
+      } else if (t.ccw(s1, s3, s2)) {
+        // s2 is under the line s1-s3, so that line is the hull on top
+        int c = t.connect(b, a, slab.pop(t));
+        slab.first = Triangulation.sym(c);
+        slab.last = c;
       }
     }
-    return triangulated;
+    return slab;
   }
 
   /**
-   * Evaluates the current L and R and makes sure that they are the correct
-   * choices by using 4 extra theorems
-   * @param left,right are the left and right triangulated (so-far) adjacency lists
-   * @param l,r are the current L and R points
-   * @return the new/confirmed L and R in the form of an Point[]{L, R}
+   * The parallel version of triangulate(). Both halves of a range are
+   * independent until they are merged, so one half is forked off to another
+   * thread while this thread triangulates the other.
    */
-  private static Point[] getLR(
-      HashMap<Point, ArrayList<Point>> left,
-      HashMap<Point, ArrayList<Point>> right,
-      Point l, Point r) {
-    ArrayList<Point> usedLs = new ArrayList<>(0);
-    ArrayList<Point> usedRs = new ArrayList<>(0);
-    //assume l and r are lowest. Test the cases
-    loop:
-    while (true) {
-      //2) If the current l is not visible by the current r, discard edge and look for any new one
-      if (!isVisible(l, left, r)) {
-        usedLs.add(l);
-        // get new L
-        l = null;
-        for (Point p : left.keySet()) {
-          if (!usedLs.contains(p)) {
-            if (l == null || p.y < l.y) l = p;
-            else if (p.y == l.y && l.x < p.x) l = p;
-          }
-        }
-        continue loop;
-      }
-      //3) If the current r is not visible by the current l, discard edge and look for any new one
-      if (!isVisible(r, right, l)) {
-        usedRs.add(r);
-        // get new R
-        r = null;
-        for (Point p : right.keySet()) {
-          if (!usedRs.contains(p)) {
-            if (r == null || p.y < r.y) r = p;
-            else if (p.y == r.y && r.x > p.x) r = p;
-          }
-        }
-        continue loop;
-      }
-      //4) If there is an r that has an angle less than current r (relative to l), take that and discard previous
-      Angle r_l = new Angle(r, l);
-      loop4:
-      for (Point p : right.keySet()) {
-        if (!usedRs.contains(p)) {
-          //check if this point has less degrees while being visible.
-          Angle p_l = new Angle(p, l);
-          if (p_l.lessThan(r_l) && isVisible(p, right, l)) {
-            //however if this new one is basically the same angle as previous
-            if (r_l.minus(p_l) < 0.25) {
-              //but the distance to the new one is further, rather skip
-              if (r.dist(l) < p.dist(l)) continue loop4;
-            }
-            //then we will only take it if it is closer
-            usedRs.add(r);
-            r = p;
-            continue loop;
-          }
-        }
-      }
-      //5) If there is an l that has an angle more than current l (relative to r), take that and discard previous
-      Angle l_r = new Angle(l, r);
-      loop5:
-      for (Point p : left.keySet()) {
-        if (!usedLs.contains(p)) {
-          //check if this point has less degrees while being visible.
-          Angle p_r = new Angle(p, r);
-          if (l_r.lessThan(p_r) && isVisible(p, left, r)) {
-            //however if this new one is basically the same angle as previous
-            if (p_r.minus(l_r) < 0.25) {
-              //but the distance to the new one is further, rather skip
-              if (l.dist(r) < p.dist(r)) continue loop5;
-            }
-            usedLs.add(l);
-            l = p;
-            continue loop;
-          }
-        }
+  private static class Triangulate extends RecursiveTask<Slab> {
+    private static final long serialVersionUID = 1L;
+
+    private final Triangulation t;
+    private final int[] sorted;
+    private final int lo, hi, cutoff;
+
+    Triangulate(Triangulation t, int[] sorted, int lo, int hi, int cutoff) {
+      this.t = t;
+      this.sorted = sorted;
+      this.lo = lo;
+      this.hi = hi;
+      this.cutoff = cutoff;
+    }
+
+    @Override
+    protected Slab compute() {
+      if (hi - lo <= cutoff) {
+        return triangulate(t, sorted, lo, hi);
       }
-      return new Point[]{l, r};
+      int split = lo + (hi - lo)/2;
+      Triangulate left = new Triangulate(t, sorted, lo, split, cutoff);
+      left.fork();
+      Slab right = new Triangulate(t, sorted, split, hi, cutoff).compute();
+      Slab merged = left.join();
+      int ldi = merged.last, rdi = right.first;
+      merged.join(t, right);
+      merge(t, merged, ldi, rdi);
+      return merged;
     }
   }
 
   /**
-   * Checks wether the specified corner (one of the corners of the given shape)
-   * is visible by the given eye (outside of the shape)
-   * @param corner the corner of the shape the eye wants to see
-   * @param shape the array of points representing the ordered Corners of some polygon
-   * @param eye the Point that we want to check whether the corner is visible to
+   * A triangulated range of the map: its convex hull and free half-edges.
+   * Every range of k sorted vertices owns the 6k half-edges at 6 times its
+   * position in the sorted list, which is enough for its triangulation (at
+   * most 3k - 6 edges). Because ranges only ever touch their own vertices and
+   * half-edges, ranges can be triangulated on different threads without
+   * locking. The free half-edge pairs are chained through Triangulation.next.
    */
-  private static boolean isVisible(Point corner, Point[] shape, Point eye) {
-    Angle eye_corner = new Angle(eye, corner);
-    Angle min = null;
-    Angle max = null;
-    Angle centre = null;
-    // get all points that aren't corner on a hashmap mapped to their distances to p
-    HashMap<Point, Double> sortMe = new HashMap<>();
-    for (Point p : shape) {
-      if (p != corner) sortMe.put(p, corner.dist(p));
-    }
-    sortMe.put(eye, corner.dist(eye));
-    ArrayList<Point> sorted = sort(sortMe);
-    // iterate over all points in order of closest distance to p
-    for (Point p : sorted) {
-      if (p == eye) {
-        if (centre == null) {
-          return true;
-        } else {
-          return !(min.lessThan(eye_corner) && eye_corner.lessThan(max));
+  private static class Slab {
+    /** The hull half-edge leaving the leftmost vertex, inside on its left */
+    int first = -1;
+    /** The hull half-edge leaving the rightmost vertex, outside on its left */
+    int last = -1;
+
+    int head = -1;
+    int tail = -1;
+    /** The amount of half-edge pairs taken minus the amount given back */
+    int edges = 0;
+
+    /* Creates a slab with the half-edges from (inclusive) to to (exclusive) */
+    Slab(Triangulation t, int from, int to) {
+      if (from < to) {
+        head = from;
+        tail = to - 2;
+        for (int e = from; e < to; e += 2) {
+          t.origin[e] = t.origin[e+1] = -1;
+          t.next[e] = e + 2;
         }
+        t.next[tail] = -1;
       }
-      Angle p_corner = new Angle(p, corner);
-      if (min == null) {
-        min = p_corner;
-      } else if (centre == null) {
-        max = p_corner;
-        Angle a = min.copy();
-        Angle b = max.copy();
-        // now find out which one is actually min and which is actually max
-        // get centre angle
-        centre = new Angle(a, b);
-        // create a point in direction of centre
-        Point centreP = new Point(centre.angle, 1);
-        // if that point is not inside shape, then we need to invert the angle
-        if (!centreP.isInside(shape)) {
-          centre = new Angle(centre.angle+180);
-        }
-        if (b.lessThan(centre)) {
-          min = b;
-          max = a;
-        }
-        // reset min and max
-        // with new angle, shoot in that direction as far as you can
-      } else {
-        if ((p_corner).lessThan(min)) min = p_corner;
-        if ((max).lessThan(p_corner)) max = p_corner;
+    }
+
+    /* Takes a free half-edge pair */
+    int pop(Triangulation t) {
+      int e = head;
+      head = t.next[e];
+      if (head == -1) {
+        tail = -1;
       }
+      edges++;
+      return e;
     }
-    return !(min.lessThan(eye_corner) && eye_corner.lessThan(max));
-  }
-  /* Different Parameter version of the above isVisible() */
-  private static boolean isVisible(Point corner, HashMap<Point, ArrayList<Point>> shape, Point eye) {
-    Point[] arr = new Point[shape.size()];
-    int i = 0;
-    for (Point p : shape.keySet()) {
-      arr[i] = p;
-      i++;
+
+    /* Gives back the half-edge pair of e */
+    void push(Triangulation t, int e) {
+      int pair = e & ~1;
+      t.next[pair] = head;
+      if (head == -1) {
+        tail = pair;
+      }
+      head = pair;
+      edges--;
+    }
+
+    /*
+     * Adds the half-edges of the other slab (the range to the right of this
+     * one) to this one. The hull is only correct again after merge().
+     */
+    Slab join(Triangulation t, Slab other) {
+      last = other.last;
+      if (head == -1) {
+        head = other.head;
+        tail = other.tail;
+      } else if (other.head != -1) {
+        t.next[tail] = other.head;
+        tail = other.tail;
+      }
+      edges += other.edges;
+      return this;
     }
-    return isVisible(corner, arr, eye);
   }
 
   /**
-   * Takes in two sets that are next to each other (left and right) and merges them. Steps:
-   1 Create an edge at the bottom using the lowest(y) of the left and right subsets' points
-   2 For each side repsectively, set up a list of candidates and sort the list based on
-   * smallest angle difference with the bottom edge
-   3 Each side selects a candidate from the sorted list and determines which
+   * Takes in two triangulations that are next to each other (left and right)
+   * and merges them. Steps:
+   1 Create an edge at the bottom (the lower common tangent) of the left and
+   * right sides: the LR edge
+   2 Each side selects a candidate from the neighbours of its end of the LR
+   * edge, in order of smallest angle with the LR edge, and determines which
    * criterions the candidate meets:
    * C1: Criterion1) Angle less than 180
    * C2: Criterion2) Circumcircle with that candidate via triangle with left,
@@ -289,248 +505,519 @@ public class Delaunay {
    * if C1 and C2
    *   Set this candidate as the Final candidate for this side
    * else if !C1
-   *   Then no candidates will be chosen from this side (break candidate search loop)
+   *   Then no candidates will be chosen from this side
    * else if C1 and !C2
    *   The line drawn from the endpoint (on the side of the candidate) to
    *   the candidate is deleted
    * end if
    *
-   * Unless the candidate search loop is broken, this process is repeated until
-   * a final candidate for this side is chosen, or all candidates have been exhuasted
-   * (In which case, there is no final candidate)
-   *
    * After both sides have confirmed their final candidates (if any), the
    * following process is followed:
    - If neither side has submitted a candidate, the merge is complete
-   - If only one candidate is submited, we setup a connection between the opposite
-   * side's bottom edge endpoint and the final candidate. the new LR lines endpoint
-   * on the candidate's side becomes the candidate
-   - If both sides have submitted a candidate, the previous if will be followed but
-   * with the final candidate being the point not contained by the circumcircle drawn
-   * via the bottom Edge's endpoints and the opposite side's final candidate
+   - If only one candidate is submited, it is connected to the opposite
+   * side's endpoint, and that connection becomes the new LR edge
+   - If both sides have submitted a candidate, the previous is followed with
+   * the candidate not contained by the circumcircle drawn via the LR edge's
+   * endpoints and the opposite side's final candidate
+   *
+   * Because the half-edges around a vertex are kept in counter-clockwise
+   * order, the candidates are simply visited by rotating around the LR edge's
+   * endpoints and no angles have to be calculated or sorted.
    *
-   * @param left,right are the (so-far) delaunay triangulated sets of the left
-   *        and right sides of the map, respectively.
-   * @return the delaunized merged version of left and right
+   * @param t the triangulation holding both sides
+   * @param slab both sides joined, its hull is updated to the merged hull
+   * @param ldi the hull half-edge leaving the rightmost vertex of the left side
+   * @param rdi the hull half-edge leaving the leftmost vertex of the right side
    */
-  private static HashMap<Point, ArrayList<Point>> merge(
-      HashMap<Point, ArrayList<Point>> left,
-      HashMap<Point, ArrayList<Point>> right) {
-    // create an edge at the bottom using the bottom of the left and right subsets
-    HashMap<Point, ArrayList<Point>> merged = new HashMap<>();
-
+  private static void merge(Triangulation t, Slab slab, int ldi, int rdi) {
     //------------------------------------------------------------------------
     //                            GET LR
     //------------------------------------------------------------------------
-    // find bottom of each of left and right
-    Point l = null;
-    for (Point p : left.keySet()){
-      merged.put(p, left.get(p));
-      if (l == null || p.y < l.y || (p.y == l.y && p.x > l.x))
-        l = p;
-    }
-    Point r = null;
-    for (Point p : right.keySet()){
-      merged.put(p, right.get(p));
-      if (r == null || p.y < r.y || (p.y == r.y && p.x < p.y))
-        r = p;
-    }
-    if (left.isEmpty() || right.isEmpty())
-      return merged;
-
-
-// check that r and l are in sight
-    // ensure that there are no points under the line between r-l from l & r list
-    Angle r_l = new Angle(r, l);
-    Angle l_r = new Angle(l, r);
-    Point[] getLR = getLR(left, right, l, r);
-    l = getLR[0];
-    r = getLR[1];
+    // start from the convex hull edges at the facing ends of each side, then
+    // walk along the hulls until the LR edge has no points under it. Every
+    // step discards a hull vertex, so this takes linear time at most.
+    while (true) {
+      if (leftOf(t, t.org(rdi), ldi)) {
+        ldi = t.lnext(ldi);
+      } else if (rightOf(t, t.org(ldi), rdi)) {
+        rdi = t.rprev(rdi);
+      } else {
+        break;
+      }
+    }
+    // the LR edge, running from right to left
+    int base = t.connect(Triangulation.sym(rdi), ldi, slab.pop(t));
+    // if the LR edge starts at an extreme vertex, it is part of the new hull
+    if (t.org(ldi) == t.org(slab.first)) {
+      slab.first = Triangulation.sym(base);
+    }
+    if (t.org(rdi) == t.org(slab.last)) {
+      slab.last = base;
+    }
 
     // LOOP
-    loop:
     while (true) {
       //------------------------------------------------------------------------
       //                     CANDIDATE SELECTION
       //------------------------------------------------------------------------
-
       //______________________________LEFT______________________________________
-      // create sorted list of all points connected to l based on smallest angle
-      HashMap<Point, Double> leftAngles = new HashMap<>();
-      r_l = new Angle(r, l);//base line from l's perspective
-      for (Point p : merged.get(l)) {
-        Angle p_l = new Angle(p, l);//angle of possible candidate relative to l
-        double diff = p_l.minus(r_l);
-        leftAngles.put(p, diff);
-      }
-      ArrayList<Point> leftCandidates = sort(leftAngles);
-      // search for left candidate
-      Point leftFinalCandidate = null;
-      leftCandidateSearch:
-      for (int i = 0; i < leftCandidates.size(); i++) {
-        if (leftFinalCandidate != null) break leftCandidateSearch;
-        Point leftCandidate = leftCandidates.get(i);
-        if (leftCandidate == r) continue leftCandidateSearch;
-        //Now to get the next candidate
-        Point nextCandidate = (i+1 < leftCandidates.size()) ? leftCandidates.get(i+1) : null;
-        //first criterion: angle < 180
-        double angle = leftAngles.get(leftCandidate);
-        boolean firstCriterion = angle < 179.99;//180.0;
-        //second criterion: circumcircle with that candidate may not contain next candidate on that side
-        boolean secondCriterion = true;
-        if (nextCandidate != null && angle != 180.0) {
-          Point cc = getCc(l, r, leftCandidate);
-          if (cc.dist(nextCandidate) < cc.dist(l)) {//if dist to next candidate is outside of radius
-            secondCriterion = false;
-          }
+      int lcand = t.onext(Triangulation.sym(base));
+      if (valid(t, lcand, base)) {
+        // delete lines to candidates whose circumcircle contains the next one
+        while (t.inCircle(t.dest(base), t.org(base), t.dest(lcand), t.dest(t.onext(lcand)))) {
+          int nextCandidate = t.onext(lcand);
+          t.unlink(lcand);
+          slab.push(t, lcand);
+          lcand = nextCandidate;
         }
-        //act accordingly to criteria:
-        if (firstCriterion && secondCriterion) {
-          leftFinalCandidate = leftCandidate;//our final candidate for that side
-        } else if (!firstCriterion) {
-          break leftCandidateSearch; //Then no candidates will be chosen from that side
-        } else if (firstCriterion && !secondCriterion) {
-          // the line drawn from the endpoint (on the side of the candidate) to the candidate is deleted
-          merged.get(leftCandidate).remove(l);
-          merged.get(l).remove(leftCandidate);
+      }
+      //______________________________RIGHT_____________________________________
+      int rcand = t.oprev(base);
+      if (valid(t, rcand, base)) {
+        while (t.inCircle(t.dest(base), t.org(base), t.dest(rcand), t.dest(t.oprev(rcand)))) {
+          int nextCandidate = t.oprev(rcand);
+          t.unlink(rcand);
+          slab.push(t, rcand);
+          rcand = nextCandidate;
         }
       }
+      //_______________________CANDIDATE PROCESSING_____________________________
+      boolean leftFinalCandidate = valid(t, lcand, base);
+      boolean rightFinalCandidate = valid(t, rcand, base);
+      // If neither side has submitted a candidate the merge is complete
+      if (!leftFinalCandidate && !rightFinalCandidate) {
+        break;
+      }
+      // the circumcircle that does not contain the other candidate wins
+      if (!leftFinalCandidate || (rightFinalCandidate && t.inCircle(
+          t.dest(lcand), t.org(lcand), t.org(rcand), t.dest(rcand)))) {
+        base = t.connect(rcand, Triangulation.sym(base), slab.pop(t));
+      } else {
+        base = t.connect(Triangulation.sym(base), Triangulation.sym(lcand), slab.pop(t));
+      }
+    }
+  }
 
-      //______________________________RIGHT_____________________________________
-      // create sorted list of all points connected to r based on smallest angle
-      HashMap<Point, Double> rightAngles = new HashMap<>();
-      l_r = new Angle(l, r);//base line from r's perspective
-      for (Point p : merged.get(r)) {
-        Angle p_r = new Angle(p, r);//angle of possible candidate relative to r
-        double diff = l_r.minus(p_r);
-        rightAngles.put(p, diff);
+  /* Whether vertex v lies to the right of half-edge e */
+  private static boolean rightOf(Triangulation t, int v, int e) {
+    return t.ccw(v, t.dest(e), t.org(e));
+  }
+
+  /* Whether vertex v lies to the left of half-edge e */
+  private static boolean leftOf(Triangulation t, int v, int e) {
+    return t.ccw(v, t.org(e), t.dest(e));
+  }
+
+  /* Criterion1: the candidate lies above the LR edge (angle less than 180) */
+  private static boolean valid(Triangulation t, int candidate, int base) {
+    return rightOf(t, t.dest(candidate), base);
+  }
+
+  /*****************************************************************************
+   *                           DUPLICATES
+   ****************************************************************************/
+  /**
+   * Same as delaunize(), but first merges every point whose coordinates both
+   * lie within epsilon of an earlier point into that point (see
+   * duplicates()), so near-duplicates such as repeated GPS fixes do not end up
+   * as slivers.
+   *
+   * @param all the list of all Points on some map
+   * @param epsilon the distance below which two points are the same
+   * @return the adjacency list of the points that are not merged into another
+   */
+  public static HashMap<Point, ArrayList<Point>> delaunize(ArrayList<Point> all,
+      double epsilon) {
+    int[] merged = duplicates(all, epsilon);
+    HashMap<Point, ArrayList<Point>> adj = triangulation(all, merged)
+      .toAdjacency();
+    for (int i = 0; i < merged.length; i++) {
+      if (merged[i] != i) {
+        adj.remove(all.get(i));
       }
-      ArrayList<Point> rightCandidates = sort(rightAngles);
-
-      // now we have a sorted list of all possible left and right candidates.
-      Point rightFinalCandidate = null;
-      rightCandidateSearch:
-      for (int i = 0; i < rightCandidates.size(); i++) {
-        if (rightFinalCandidate != null) break rightCandidateSearch;
-        Point rightCandidate = rightCandidates.get(i);
-        if (rightCandidate == l) continue rightCandidateSearch;
-        Point nextCandidate = (i+1 < rightCandidates.size()) ? rightCandidates.get(i+1) : null;
-        //first criterion: angle < 180
-        double angle = rightAngles.get(rightCandidate);
-        boolean firstCriterion = angle < 179.99;//180.0;
-        //second criterion: circumcircle with that candidate may not contain next candidate on that side
-        boolean secondCriterion = true;
-        if (nextCandidate != null && angle != 180.0) {
-          Point cc = getCc(l, r, rightCandidate);
-          if (cc.dist(nextCandidate) < cc.dist(r)) {//if dist to next candidate is outside of radius
-            secondCriterion = false;
-          }
-        }
-        //act accordingly to criteria:
-        if (firstCriterion && secondCriterion) {
-          rightFinalCandidate = rightCandidate;//our final candidate for that side
-        } else if (!firstCriterion) {
-          break rightCandidateSearch; //Then no candidates will be chosen from that side
-        } else if (firstCriterion && !secondCriterion) {
-          //the line drawn from the endpoint (on the side of the candidate) to the candidate is deleted
-          merged.get(rightCandidate).remove(r);
-          merged.get(r).remove(rightCandidate);
-        }
+    }
+    return adj;
+  }
+
+  /** Same as the below, but with the points in the given buffer */
+  public static int[] duplicates(PointBuffer ps, double epsilon) {
+    return duplicates(ps.xs(), ps.ys(), epsilon);
+  }
+
+  /** Same as the below, but with the coordinates of the given points */
+  public static int[] duplicates(ArrayList<Point> all, double epsilon) {
+    double[] xs = new double[all.size()];
+    double[] ys = new double[all.size()];
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = all.get(i).x;
+      ys[i] = all.get(i).y;
+    }
+    return duplicates(xs, ys, epsilon);
+  }
+
+  /**
+   * Finds the points that lie within epsilon of an earlier point in O(n)
+   * expected time, where two points lie within epsilon of each other if both
+   * of their coordinates do, like Point.equals(). Every point that is kept
+   * becomes a key of a PointMap, which snaps it to a hash grid of cells
+   * epsilon wide, so a point only has to be compared to the kept points in
+   * the 3x3 cells around it, of which there are a few at most.
+   *
+   * @param xs,ys the coordinates of the points
+   * @param epsilon the distance below which two coordinates are the same
+   * @return for every point, the index of the point it is merged into: the
+   *         closest earlier kept point within epsilon of it (measuring by
+   *         |dx| + |dy|, the lowest index if there is a tie), or itself if
+   *         there is none
+   */
+  public static int[] duplicates(double[] xs, double[] ys, double epsilon) {
+    if (xs.length != ys.length) {
+      throw new IllegalArgumentException("xs and ys differ in length ("
+        + xs.length + " != " + ys.length + ")!!");
+    }
+    int n = xs.length;
+    int[] merged = new int[n];
+    // the kept points as keys, and the index of the point behind every key
+    PointMap<Void> kept = new PointMap<>(epsilon);
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) {
+      int k = kept.indexOf(xs[i], ys[i]);
+      if (k == -1) {
+        k = kept.add(xs[i], ys[i]);
+        ids[k] = i;
       }
-      // both sides have finished selecting candidates
+      merged[i] = ids[k];
+    }
+    return merged;
+  }
 
-      //_______________________CANDIDATE PROCESSING_____________________________
-      // If neither side has submitted a candidate
-      if (leftFinalCandidate == null && rightFinalCandidate == null) {
-        // the merge is complete
-        if (!merged.get(l).contains(r)) merged.get(l).add(r);
-        if (!merged.get(r).contains(l)) merged.get(r).add(l);
-        break loop;
+  /*****************************************************************************
+   *                           SORTING
+   ****************************************************************************/
+  /**
+   * Sorts the vertex ids based on x position (if same x, take y) with a radix
+   * sort on the bits of the coordinates, so no Points are compared or boxed
+   * and there is no comparator that could disagree with itself.
+   *
+   * @param xs,ys the coordinates of the vertices
+   * @return the ids of all vertices in sorted order
+   */
+  static int[] sort(double[] xs, double[] ys) {
+    return sort(xs, ys, null);
+  }
+
+  /**
+   * Same as the above, but splits every pass of the radix sort over the given
+   * pool.
+   *
+   * @param pool the pool to sort on, or null to sort on the calling thread
+   */
+  static int[] sort(double[] xs, double[] ys, ForkJoinPool pool) {
+    int n = xs.length;
+    long[] keys = new long[n];
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+      keys[i] = key(xs[i]);
+    }
+    Radix radix = new Radix(keys, ids, pool);
+    radix.sort(0, n, 64);
+    // sort every run of equal x values by y
+    for (int i = 0, j; i < n; i = j) {
+      for (j = i + 1; j < n && keys[j] == keys[i]; j++);
+      if (j - i > 1) {
+        for (int k = i; k < j; k++) {
+          keys[k] = key(ys[ids[k]]);
+        }
+        radix.sort(i, j, 64);
       }
+    }
+    return ids;
+  }
 
-      // only left candidate was chosen
-      else if (leftFinalCandidate != null && rightFinalCandidate == null) {
-        //check for colinearcy
-        double lAngle = leftAngles.get(leftFinalCandidate);
-        if (lAngle == 0) {
-          //l = lfc
-          l = leftFinalCandidate;
-        } else {
-          //the line that goes from l to final candidate becomes the new LR edge.
-          if (!merged.get(l).contains(r)) merged.get(l).add(r);
-          if (!merged.get(r).contains(l)) merged.get(r).add(l);
-          l = leftFinalCandidate;
+  /**
+   * Maps a double to a long whose unsigned order is the order of the doubles:
+   * the sign bit of positive values is set, and all bits of negative values
+   * are flipped so that larger magnitudes come first. -0.0 is made 0.0.
+   */
+  static long key(double d) {
+    long bits = Double.doubleToLongBits(d + 0.0);
+    return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+  }
+
+  /**
+   * A least significant digit radix sort of unsigned long keys, carrying an id
+   * along with every key. Each pass counts the 11 bit digits of every chunk of
+   * the range, turns the counts into the position every chunk writes its
+   * digits to, and then moves the keys, so both steps can run on separate
+   * threads. The sort is stable, passes where every key has the same digit
+   * are skipped and short ranges are insertion sorted instead.
+   */
+  static class Radix {
+    long[] keys;
+    int[] ids;
+    private long[] keyBuffer;
+    private int[] idBuffer;
+    private final ForkJoinPool pool;
+
+    Radix(long[] keys, int[] ids, ForkJoinPool pool) {
+      this.keys = keys;
+      this.ids = ids;
+      this.keyBuffer = new long[keys.length];
+      this.idBuffer = new int[ids.length];
+      this.pool = pool;
+    }
+
+    /**
+     * Sorts keys[from, to) along with ids[from, to) on the lowest given amount
+     * of bits of the keys.
+     */
+    void sort(int from, int to, int bits) {
+      if (to - from < 64) {
+        insertionSort(from, to);
+        return;
+      }
+      boolean swapped = false;
+      for (int shift = 0; shift < bits; shift += DIGIT) {
+        if (pass(from, to, shift)) {
+          long[] keySwap = keys;
+          keys = keyBuffer;
+          keyBuffer = keySwap;
+          int[] idSwap = ids;
+          ids = idBuffer;
+          idBuffer = idSwap;
+          swapped = !swapped;
         }
       }
+      if (swapped) {
+        // the rest of the arrays were not touched, so copy the range back
+        System.arraycopy(keys, from, keyBuffer, from, to - from);
+        System.arraycopy(ids, from, idBuffer, from, to - from);
+        long[] keySwap = keys;
+        keys = keyBuffer;
+        keyBuffer = keySwap;
+        int[] idSwap = ids;
+        ids = idBuffer;
+        idBuffer = idSwap;
+      }
+    }
 
-      //only right candidate was chosen
-      else if (leftFinalCandidate == null && rightFinalCandidate != null) {
-        //check for colinearcy
-        double rAngle = rightAngles.get(rightFinalCandidate);
-        if (rAngle == 0) {
-          //r = rfc
-          r = rightFinalCandidate;
-        } else {
-          //the line that goes from l to final candidate becomes the new LR edge.
-          if (!merged.get(l).contains(r)) merged.get(l).add(r);
-          if (!merged.get(r).contains(l)) merged.get(r).add(l);
-          r = rightFinalCandidate;
+    /* Sorts a short range of keys (and ids) in place */
+    private void insertionSort(int from, int to) {
+      for (int i = from + 1; i < to; i++) {
+        long key = keys[i];
+        int id = ids[i];
+        int j = i;
+        for (; j > from && Long.compareUnsigned(keys[j-1], key) > 0; j--) {
+          keys[j] = keys[j-1];
+          ids[j] = ids[j-1];
         }
+        keys[j] = key;
+        ids[j] = id;
       }
+    }
 
-      //If both sides have submitted a candidate:
-      else if (leftFinalCandidate != null && rightFinalCandidate != null) {
-        double lAngle = leftAngles.get(leftFinalCandidate);
-        double rAngle = rightAngles.get(rightFinalCandidate);
-
-        if (lAngle == 0 && rAngle == 0) {
-          // THIS SHOULD NOT BE THE CASE:
-          if (leftFinalCandidate == rightFinalCandidate) {
-            System.out.println("leftFinalCandidate == rightFinalCandidate");
-            System.exit(0);
-          }
+    /* The amount of bits sorted on per pass */
+    private static final int DIGIT = 11;
+    private static final int DIGITS = 1 << DIGIT;
+
+    /* Moves the range from keys into keyBuffer ordered by the digit at shift */
+    private boolean pass(int from, int to, int shift) {
+      int size = to - from;
+      int chunks = (pool == null || size < 2 * CUTOFF)
+        ? 1 : Math.min(4 * pool.getParallelism(), size / CUTOFF);
+      int[][] counts = new int[chunks][DIGITS];
+      long[] in = keys;
+      run(chunks, c -> {
+        int[] count = counts[c];
+        int lo = from + chunk(size, chunks, c);
+        int hi = from + chunk(size, chunks, c + 1);
+        for (int i = lo; i < hi; i++) {
+          count[(int)(in[i] >>> shift) & (DIGITS - 1)]++;
+        }
+      });
+      // nothing to do if all keys have the same digit
+      for (int digit = 0; digit < DIGITS; digit++) {
+        int total = 0;
+        for (int c = 0; c < chunks; c++) {
+          total += counts[c][digit];
+        }
+        if (total == size) {
+          return false;
+        }
+        if (total != 0) {
+          break;
         }
+      }
+      // where each chunk writes each digit
+      int position = from;
+      for (int digit = 0; digit < DIGITS; digit++) {
+        for (int c = 0; c < chunks; c++) {
+          int count = counts[c][digit];
+          counts[c][digit] = position;
+          position += count;
+        }
+      }
+      int[] inIds = ids;
+      long[] out = keyBuffer;
+      int[] outIds = idBuffer;
+      run(chunks, c -> {
+        int[] at = counts[c];
+        int lo = from + chunk(size, chunks, c);
+        int hi = from + chunk(size, chunks, c + 1);
+        for (int i = lo; i < hi; i++) {
+          int p = at[(int)(in[i] >>> shift) & (DIGITS - 1)]++;
+          out[p] = in[i];
+          outIds[p] = inIds[i];
+        }
+      });
+      return true;
+    }
+
+    /* The start of chunk c when splitting size elements into chunks */
+    private static int chunk(int size, int chunks, int c) {
+      return (int)((long)size * c / chunks);
+    }
+
+    /* Runs the body for every chunk, on the pool if there is more than one */
+    private void run(int chunks, IntConsumer body) {
+      if (chunks == 1) {
+        body.accept(0);
+      } else {
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(body)).join();
+      }
+    }
+  }
+
+  /**
+   * Orders the vertices for insertion into a triangulation with a biased
+   * randomized insertion order (Amenta, Choi and Rote, "Incremental
+   * constructions con BRIO", 2003). The vertices are shuffled and split into
+   * rounds that double in size, the last round holding half of them. Every
+   * round is then sorted along a Hilbert curve, so consecutive vertices lie
+   * close to each other while each round is still a random sample.
+   *
+   * @param xs,ys the coordinates of the vertices
+   * @param random the source of the shuffle
+   * @return the ids of all vertices in insertion order
+   */
+  static int[] brio(double[] xs, double[] ys, Random random) {
+    int n = xs.length;
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    for (int i = n - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = order[i];
+      order[i] = order[j];
+      order[j] = swap;
+    }
+    Radix radix = new Radix(hilbertKeys(xs, ys, order), order, null);
+    for (int hi = n; hi > 0; hi >>= 1) {
+      radix.sort(hi >> 1, hi, 32);
+    }
+    return radix.ids;
+  }
+
+  /**
+   * Orders points along a Hilbert curve, so consecutive points lie close to
+   * each other, e.g. to answer queries about them with short walks.
+   *
+   * @param xs,ys the coordinates of the points
+   * @return the ids of all points in the order they are met along the curve
+   */
+  static int[] hilbert(double[] xs, double[] ys) {
+    int n = xs.length;
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    Radix radix = new Radix(hilbertKeys(xs, ys, order), order, null);
+    radix.sort(0, n, 32);
+    return radix.ids;
+  }
 
-        if (lAngle == 0) {
-          l = leftFinalCandidate;
-        } else if (rAngle == 0) {
-          r = rightFinalCandidate;
-        } else {
-          // get the circum circle of both triangles formed with the candidates
-          Point lcc = getCc(l, r, leftFinalCandidate);
-          Point rcc = getCc(l, r, rightFinalCandidate);//we need only test once
-          // the circumcircle that does not contain the other candidate will be the final candidate
-          if (lcc.dist(l) > lcc.dist(rightFinalCandidate)){
-            //then rightFinalCandidate is the successor
-            if (!merged.get(l).contains(r)) merged.get(l).add(r);
-            if (!merged.get(r).contains(l)) merged.get(r).add(l);
-            r = rightFinalCandidate;
-          } else {
-            //then leftFinalCandidate is the successor
-            if (!merged.get(l).contains(r)) merged.get(l).add(r);
-            if (!merged.get(r).contains(l)) merged.get(r).add(l);
-            l = leftFinalCandidate;
-          }
+  /**
+   * Gets the index along the Hilbert curve of every point on a 2^16 by 2^16
+   * grid over their bounding box.
+   *
+   * @param order the ids of the points, in the order to give their keys in
+   * @return the key of point order[i] at index i
+   */
+  private static long[] hilbertKeys(double[] xs, double[] ys, int[] order) {
+    int n = xs.length;
+    double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      minX = Math.min(minX, xs[i]);
+      maxX = Math.max(maxX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxY = Math.max(maxY, ys[i]);
+    }
+    double scaleX = (maxX > minX) ? 0xFFFF / (maxX - minX) : 0;
+    double scaleY = (maxY > minY) ? 0xFFFF / (maxY - minY) : 0;
+    long[] keys = new long[n];
+    for (int i = 0; i < n; i++) {
+      int v = order[i];
+      int x = (int)((xs[v] - minX) * scaleX);
+      int y = (int)((ys[v] - minY) * scaleY);
+      keys[i] = hilbert(x, y);
+    }
+    return keys;
+  }
+
+  /**
+   * Gets the distance along the Hilbert curve that fills the 2^16 by 2^16 grid
+   * to the cell x, y.
+   *
+   * @param x,y a cell in the grid, each in [0, 2^16)
+   * @return the index of the cell on the curve, in [0, 2^32)
+   */
+  static long hilbert(int x, int y) {
+    long d = 0;
+    for (int s = 1 << 15; s > 0; s >>= 1) {
+      int rx = ((x & s) != 0) ? 1 : 0;
+      int ry = ((y & s) != 0) ? 1 : 0;
+      d += (long)s * s * ((3 * rx) ^ ry);
+      // rotate the quadrant so the curve inside it is in standard position
+      if (ry == 0) {
+        if (rx == 1) {
+          x = 0xFFFF - x;
+          y = 0xFFFF - y;
         }
+        int swap = x;
+        x = y;
+        y = swap;
       }
     }
-    return merged;
+    return d;
   }
 
   /**
-   * Calculates the circumcentre of a collection of points making up a triangle.
-   * @param a,b,c the 3 corners of a triangle
-   * @return the coordinate of the circumcentre of the triangle a-b-c
+   * Moves the first occurence of every coordinate to the front of the sorted
+   * ids, since two vertices at the same location can not be triangulated.
+   * Every other vertex at that location is remembered by t as lying on top of
+   * the first one, so that Triangulation.move() can insert it once they part.
+   *
+   * @param n the amount of ids at the front of sorted to look at
+   * @return the amount of unique vertices at the front of sorted
    */
-  private static Point getCc(Point a, Point b, Point c){
-    double x1 = a.x, y1 = a.y, x2 = b.x, y2 = b.y, x3 = c.x, y3 = c.y;
-    double y2_MINUS_y1 = (y2-y1==0) ? 0.001 : y2-y1;
-    double y3_MINUS_y1 = (y3-y1==0) ? 0.001 : y3-y1;
-    double x = 0.5*
-      ( y3 - y2 + (x3*x3-x1*x1)/(y3_MINUS_y1) + (x1*x1-x2*x2)/(y2_MINUS_y1) )/
-      ( (x1-x2)/(y2_MINUS_y1) + (x3-x1)/(y3_MINUS_y1) );
-    double y = ((x1-x2)/(y2_MINUS_y1))*x + 0.5*(y1 + y2 + (x2*x2-x1*x1)/(y2_MINUS_y1));
-    return new Point(x, y);
+  private static int unique(Triangulation t, int[] sorted, int n) {
+    if (n == 0) {
+      return 0;
+    }
+    double[] xs = t.xs, ys = t.ys;
+    int unique = 1;
+    for (int i = 1; i < n; i++) {
+      int prev = sorted[unique-1], curr = sorted[i];
+      if (xs[prev] != xs[curr] || ys[prev] != ys[curr]) {
+        sorted[unique++] = curr;
+      } else {
+        t.setDuplicate(curr, prev);
+      }
+    }
+    return unique;
   }
 
   /**
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Batch versions of the geometry that Point and CoreGeom compute for one
+ * object at a time (Point.dist(), Point.area(), Predicates.orient2d() and
+ * CoreGeom.cc()), run over all points of a PointBuffer or over a whole list of
+ * triangles given as vertex ids into one. With the coordinates in primitive
+ * arrays every kernel is one loop of the same arithmetic on every element, so
+ * it is run on the SIMD lanes of the processor with the Vector API (see
+ * VectorKernels.java) when that is available, and with plain loops when it is
+ * not. Both give the exact same results.
+ *
+ * Orientations are exact like Predicates.orient2d(): the determinants are
+ * computed in batch, and only the few whose rounding error could have flipped
+ * their sign are computed again with Predicates.
+ *
+ * DEPENDENCIES:
+ *  PointBuffer.java
+ *  Predicates.java
+ *  VectorKernels.java (optional, looked up by name at runtime)
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Pass a PointBuffer (and, for the triangle kernels, 3 vertex ids into it
+ *  per triangle, such as Triangulation.triangles() returns) to one of the
+ *  static methods. The Vector API is an incubator module, so compile and run
+ *  with "--add-modules jdk.incubator.vector" to use it. Without the module,
+ *  leave VectorKernels.java out of the compile: Kernels only refers to it by
+ *  name, and uses the plain loops when it can not be loaded. vectorized()
+ *  tells which.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+public class Kernels {
+
+  /** The kernels on the Vector API, or null if they run on plain loops */
+  private static final Vectorized VECTOR = vector();
+
+  /**
+   * The kernels of a class that runs them on SIMD lanes, see Kernels for
+   * what each of them computes. VectorKernels implements it; it is only
+   * reached through this interface, so that Kernels compiles and runs
+   * without the incubator module.
+   */
+  interface Vectorized {
+    /** @return the amount of doubles handled at a time */
+    int lanes();
+    void distances(double[] xs, double[] ys, int offset, double x, double y,
+      double[] out);
+    void inBox(double[] xs, double[] ys, int offset, double minX, double minY,
+      double maxX, double maxY, boolean[] out);
+    void orientations(double[] xs, double[] ys, int offset, int[][] corners,
+      int[] out);
+    void areas(double[] xs, double[] ys, int offset, int[][] corners,
+      double[] out);
+    void circumcentres(double[] xs, double[] ys, int offset, int[][] corners,
+      double[] cxs, double[] cys);
+  }
+
+  /**
+   * Loads VectorKernels if the Vector API is there, VectorKernels was
+   * compiled and the processor has more than one lane.
+   */
+  private static Vectorized vector() {
+    if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      return null;
+    }
+    try {
+      Vectorized kernels = (Vectorized)Class.forName("VectorKernels")
+        .getDeclaredConstructor().newInstance();
+      return (kernels.lanes() > 1) ? kernels : null;
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // VectorKernels was left out, or the module's classes can not be used
+      return null;
+    }
+  }
+
+  /** @return true if the kernels run on the Vector API, false if on loops */
+  public static boolean vectorized() {
+    return VECTOR != null;
+  }
+
+  /*****************************************************************************
+   *                           POINT KERNELS
+   ****************************************************************************/
+  /**
+   * Calculates the distance from every point in the buffer to (x, y).
+   *
+   * @param ps the points
+   * @param x,y the query point
+   * @return the distance of every point in ps to (x, y), by index
+   */
+  public static double[] distances(PointBuffer ps, double x, double y) {
+    double[] out = new double[ps.size()];
+    if (VECTOR != null) {
+      VECTOR.distances(ps.xs, ps.ys, ps.offset, x, y, out);
+    } else {
+      distances(ps.xs, ps.ys, ps.offset, x, y, out, 0, out.length);
+    }
+    return out;
+  }
+
+  /**
+   * Checks which points of the buffer lie inside the box, boundary included.
+   *
+   * @param ps the points
+   * @param minX,minY,maxX,maxY the bounds of the box
+   * @return for every point in ps, whether it lies inside the box
+   */
+  public static boolean[] inBox(PointBuffer ps, double minX, double minY,
+      double maxX, double maxY) {
+    boolean[] out = new boolean[ps.size()];
+    if (VECTOR != null) {
+      VECTOR.inBox(ps.xs, ps.ys, ps.offset, minX, minY, maxX, maxY,
+        out);
+    } else {
+      inBox(ps.xs, ps.ys, ps.offset, minX, minY, maxX, maxY, out, 0,
+        out.length);
+    }
+    return out;
+  }
+
+  /*****************************************************************************
+   *                           TRIANGLE KERNELS
+   ****************************************************************************/
+  /**
+   * Finds the orientation of every triangle, exactly.
+   *
+   * @param ps the points
+   * @param triangles 3 ids of points in ps per triangle
+   * @return for every triangle, +1 if its corners make a counter-clockwise
+   *         turn, -1 if they make a clockwise turn and 0 if they are colinear
+   */
+  public static int[] orientations(PointBuffer ps, int[] triangles) {
+    int[][] corners = corners(ps, triangles);
+    int[] out = new int[corners[0].length];
+    if (VECTOR != null) {
+      VECTOR.orientations(ps.xs, ps.ys, ps.offset, corners, out);
+    } else {
+      orientations(ps.xs, ps.ys, ps.offset, corners, out, 0, out.length);
+    }
+    return out;
+  }
+
+  /**
+   * Calculates the area of every triangle, like Point.area().
+   *
+   * @param ps the points
+   * @param triangles 3 ids of points in ps per triangle
+   * @return the area of every triangle
+   */
+  public static double[] areas(PointBuffer ps, int[] triangles) {
+    int[][] corners = corners(ps, triangles);
+    double[] out = new double[corners[0].length];
+    if (VECTOR != null) {
+      VECTOR.areas(ps.xs, ps.ys, ps.offset, corners, out);
+    } else {
+      areas(ps.xs, ps.ys, ps.offset, corners, out, 0, out.length);
+    }
+    return out;
+  }
+
+  /**
+   * Calculates the circumcentre of every triangle, like CoreGeom.cc(). The
+   * centres are computed relative to the first corner of each triangle, which
+   * keeps them accurate far from the origin.
+   *
+   * @param ps the points
+   * @param triangles 3 ids of points in ps per triangle
+   * @return the circumcentre of every triangle, with infinite or NaN
+   *         coordinates for triangles whose corners are colinear
+   */
+  public static PointBuffer circumcentres(PointBuffer ps, int[] triangles) {
+    int[][] corners = corners(ps, triangles);
+    int m = corners[0].length;
+    double[] cxs = new double[m];
+    double[] cys = new double[m];
+    if (VECTOR != null) {
+      VECTOR.circumcentres(ps.xs, ps.ys, ps.offset, corners, cxs, cys);
+    } else {
+      circumcentres(ps.xs, ps.ys, ps.offset, corners, cxs, cys, 0, m);
+    }
+    return new PointBuffer(cxs, cys);
+  }
+
+  /**
+   * Splits the list of triangles into an array of their first, second and
+   * third corners, which the kernels gather coordinates through, and checks
+   * that every id is one of a point in the buffer.
+   */
+  private static int[][] corners(PointBuffer ps, int[] triangles) {
+    if (triangles.length % 3 != 0) {
+      throw new IllegalArgumentException("the triangles hold "
+        + triangles.length + " ids, not 3 per triangle!!");
+    }
+    int m = triangles.length / 3;
+    int[][] corners = new int[3][m];
+    for (int i = 0; i < triangles.length; i++) {
+      int v = triangles[i];
+      if (v < 0 || v >= ps.size()) {
+        throw new IllegalArgumentException("there is no point " + v
+          + " in a buffer of " + ps.size() + "!!");
+      }
+      corners[i % 3][i / 3] = v;
+    }
+    return corners;
+  }
+
+  /*****************************************************************************
+   *                           LOOPS
+   ****************************************************************************/
+  /*
+   * The plain versions of the kernels, over the elements [from, to). The
+   * point at index i lies at offset + i in xs and ys. VectorKernels finishes
+   * the elements that do not fill all of its lanes with these.
+   */
+  static void distances(double[] xs, double[] ys, int offset, double x,
+      double y, double[] out, int from, int to) {
+    for (int i = from; i < to; i++) {
+      double dx = xs[offset + i] - x, dy = ys[offset + i] - y;
+      out[i] = Math.sqrt(dx * dx + dy * dy);
+    }
+  }
+
+  static void inBox(double[] xs, double[] ys, int offset, double minX,
+      double minY, double maxX, double maxY, boolean[] out, int from, int to) {
+    for (int i = from; i < to; i++) {
+      double x = xs[offset + i], y = ys[offset + i];
+      out[i] = x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+  }
+
+  static void orientations(double[] xs, double[] ys, int offset,
+      int[][] corners, int[] out, int from, int to) {
+    int[] as = corners[0], bs = corners[1], cs = corners[2];
+    for (int i = from; i < to; i++) {
+      int a = offset + as[i], b = offset + bs[i], c = offset + cs[i];
+      double left = (xs[a] - xs[c]) * (ys[b] - ys[c]);
+      double right = (ys[a] - ys[c]) * (xs[b] - xs[c]);
+      double det = left - right;
+      double bound = Predicates.ORIENT2D_BOUND
+        * (Math.abs(left) + Math.abs(right));
+      if (det > bound || -det > bound) {
+        out[i] = det > 0 ? +1 : -1;
+      } else {
+        out[i] = Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+      }
+    }
+  }
+
+  static void areas(double[] xs, double[] ys, int offset, int[][] corners,
+      double[] out, int from, int to) {
+    int[] as = corners[0], bs = corners[1], cs = corners[2];
+    for (int i = from; i < to; i++) {
+      int a = offset + as[i], b = offset + bs[i], c = offset + cs[i];
+      double area = xs[a] * (ys[b] - ys[c]) + xs[b] * (ys[c] - ys[a])
+        + xs[c] * (ys[a] - ys[b]);
+      out[i] = Math.abs(area) / 2;
+    }
+  }
+
+  static void circumcentres(double[] xs, double[] ys, int offset,
+      int[][] corners, double[] cxs, double[] cys, int from, int to) {
+    int[] as = corners[0], bs = corners[1], cs = corners[2];
+    for (int i = from; i < to; i++) {
+      int a = offset + as[i], b = offset + bs[i], c = offset + cs[i];
+      double bx = xs[b] - xs[a], by = ys[b] - ys[a];
+      double cx = xs[c] - xs[a], cy = ys[c] - ys[a];
+      double bb = bx * bx + by * by, cc = cx * cx + cy * cy;
+      double d = 2 * (bx * cy - by * cx);
+      cxs[i] = xs[a] + (cy * bb - by * cc) / d;
+      cys[i] = ys[a] + (bx * cc - cx * bb) / d;
+    }
+  }
+}
@@ -7,6 +7,10 @@
  * the methods written in C (originally, I converted them to java) at
  * https://www.geeksforgeeks.org/check-if-two-given-line-segments-intersect/
  *
+ * DEPENDENCIES:
+ *  Predicates.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
  * @author Heinrich Kreuser
  *
  * Date: 9 June 2019
@@ -264,7 +268,7 @@ public class Point implements Comparable<Point> {
 	 * If two values have < EPSILON diifference from each other, they are
 	 * considered to be equal
 	 */
-	private static final double EPSILON = 1E-6;
+	public static final double EPSILON = 1E-6;
 
  	/**
 	 * Retrieves a copy of this point
@@ -279,16 +283,14 @@ public class Point implements Comparable<Point> {
 	 * is less. Else, they are equal and we return 0.
 	 * This idea for how to compare points originates from a divide-and-conquer
 	 * approach to delaunay triangulation of a map/collection of points
+	 * The values are compared exactly: comparing them within EPSILON is not
+	 * transitive (a ~ b and b ~ c, but a < c), which breaks sorting. Use
+	 * equals() to check whether two points are close enough to be the same.
 	 */
 	@Override
 	public int compareTo(Point p) {
-		if (epsilon(this.x, p.x)) {
-			if (epsilon(this.y, p.y)) {
-				return 0;
-			}
-			return this.y < p.y ? -1 : +1;
-		}
-		return this.x < p.x ? -1 : +1;
+		int x = Double.compare(this.x + 0.0, p.x + 0.0);
+		return (x != 0) ? x : Double.compare(this.y + 0.0, p.y + 0.0);
 	}
 
 	/*****************************************************************************
@@ -340,29 +342,29 @@ public class Point implements Comparable<Point> {
 	public static boolean intersects(Point a, Point b, Point c, Point d) {
 		// Find the four orientations needed for general and
 		// special cases
-		String o1 = orientation(a, b, c);
-		String o2 = orientation(a, b, d);
-		String o3 = orientation(c, d, a);
-		String o4 = orientation(c, d, b);
+		int o1 = Predicates.orient2d(a, b, c);
+		int o2 = Predicates.orient2d(a, b, d);
+		int o3 = Predicates.orient2d(c, d, a);
+		int o4 = Predicates.orient2d(c, d, b);
 		// General case
-		if (!o1.equals(o2) && !o3.equals(o4)) {
+		if (o1 != o2 && o3 != o4) {
 			return true;
 		}
 		// Special Cases
 		// a, b and c are colinear and c lies on segment ab
-		if (o1.equals("colinear") && onSegment(a, c, b)) {
+		if (o1 == 0 && onSegment(a, c, b)) {
 			return true;
 		}
 		// a, b and d are colinear and d lies on segment ab
-		if (o2.equals("colinear") && onSegment(a, d, b)) {
+		if (o2 == 0 && onSegment(a, d, b)) {
 			return true;
 		}
 		// c, d and a are colinear and a lies on segment cd
-		if (o3.equals("colinear") && onSegment(c, a, d)) {
+		if (o3 == 0 && onSegment(c, a, d)) {
 			return true;
 		}
 		// c, d and b are colinear and b lies on segment cd
-		if (o4.equals("colinear") && onSegment(c, b, d)) {
+		if (o4 == 0 && onSegment(c, b, d)) {
 			return true;
 		}
 		return false; // Doesn't fall in any of the above cases
@@ -375,17 +377,18 @@ public class Point implements Comparable<Point> {
 	/**
 	 * To find orientation of ordered triplet (p, q, r).
 	 * See https://www.geeksforgeeks.org/orientation-3-ordered-points/
-	 * for details of below formula.
+	 * for details of the formula. The sign is decided exactly by
+	 * Predicates.orient2d(), which also offers the orientation as an int.
 	 *
 	 * @param p,q,r are the points to check colinearcy of
 	 * @return a string description of the orientation of the points
 	 */
 	public static String orientation(Point p, Point q, Point r) {
-		double val = (q.y - p.y) * (r.x - q.x) - (q.x - p.x) * (r.y - q.y);
-		if (val == 0) {
+		int orient = Predicates.orient2d(p, q, r);
+		if (orient == 0) {
 			return "colinear"; // colinear
 		}
-		return val > 0 ? "clockwise" : "counterclockwise";
+		return orient < 0 ? "clockwise" : "counterclockwise";
 	}
 
 	/**
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * A growable list of points stored as a structure of arrays: the x, y and
+ * (optionally) z coordinates each live in a primitive double[], so a point
+ * costs 16 or 24 bytes instead of a Point object with its header, padding and
+ * the pointer to it, and a pass over the points reads memory in order.
+ *
+ * A slice of a buffer is a view on the same arrays: writing a coordinate
+ * through the view changes the buffer it was taken from. Views can not grow.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Create a PointBuffer (with an expected capacity and whether it has z
+ *  coordinates), add() points to it one at a time or addAll() them in bulk,
+ *  and pass it to e.g. Delaunay.triangulation(). Everything that takes a
+ *  PointBuffer refers to its points by their index in it.
+ *  PointBuffer.of() copies a list of Points, and toList() creates Points again.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+public class PointBuffer {
+
+  /**
+   * The coordinates, shared with every view on them. Point i of this buffer
+   * is at index offset + i. zs is null if the points have no z coordinates.
+   */
+  double[] xs;
+  double[] ys;
+  double[] zs;
+
+  /** Where the points of this buffer start in the arrays */
+  final int offset;
+
+  /** The amount of points */
+  int size;
+
+  /** Whether this is a view on (part of) another buffer */
+  private final boolean view;
+
+  /*****************************************************************************
+   *                           CONSTRUCTORS
+   ****************************************************************************/
+  /** Creates an empty buffer of points without z coordinates */
+  public PointBuffer() {
+    this(16, false);
+  }
+
+  /**
+   * Creates an empty buffer.
+   *
+   * @param capacity the amount of points to make room for
+   * @param hasZ whether the points have z coordinates
+   */
+  public PointBuffer(int capacity, boolean hasZ) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("the capacity can not be negative, "
+        + "got " + capacity + "!!");
+    }
+    this.xs = new double[capacity];
+    this.ys = new double[capacity];
+    this.zs = hasZ ? new double[capacity] : null;
+    this.offset = 0;
+    this.view = false;
+  }
+
+  /**
+   * Creates a buffer that takes over the given arrays (without copying them)
+   * as the coordinates of its points.
+   *
+   * @param xs,ys the x and y coordinates of the points
+   */
+  public PointBuffer(double[] xs, double[] ys) {
+    this(xs, ys, null);
+  }
+
+  /**
+   * Same as the above, but with z coordinates.
+   *
+   * @param zs the z coordinates of the points, or null if they have none
+   */
+  public PointBuffer(double[] xs, double[] ys, double[] zs) {
+    if (ys.length != xs.length || (zs != null && zs.length != xs.length)) {
+      throw new IllegalArgumentException("the coordinate arrays differ in "
+        + "length!!");
+    }
+    this.xs = xs;
+    this.ys = ys;
+    this.zs = zs;
+    this.offset = 0;
+    this.size = xs.length;
+    this.view = false;
+  }
+
+  /* Creates a view on the given range of the arrays of another buffer */
+  private PointBuffer(PointBuffer of, int from, int to) {
+    this.xs = of.xs;
+    this.ys = of.ys;
+    this.zs = of.zs;
+    this.offset = of.offset + from;
+    this.size = to - from;
+    this.view = true;
+  }
+
+  /**
+   * Copies the coordinates of the given points into a new buffer.
+   *
+   * @param all the list of all Points on some map
+   * @param hasZ whether to keep the z coordinates of the points
+   * @return the buffer, where point i is the point at index i in all
+   */
+  public static PointBuffer of(Collection<Point> all, boolean hasZ) {
+    PointBuffer buffer = new PointBuffer(all.size(), hasZ);
+    buffer.addAll(all);
+    return buffer;
+  }
+
+  /** Same as the above, but without z coordinates */
+  public static PointBuffer of(Collection<Point> all) {
+    return of(all, false);
+  }
+
+  /*****************************************************************************
+   *                           ADDING
+   ****************************************************************************/
+  /**
+   * Adds a point without a z coordinate (or with z = 0 if the points have z
+   * coordinates).
+   *
+   * @return the index of the point
+   */
+  public int add(double x, double y) {
+    return add(x, y, 0);
+  }
+
+  /**
+   * Adds a point. The z coordinate is ignored if the points have none.
+   *
+   * @return the index of the point
+   */
+  public int add(double x, double y, double z) {
+    ensureCapacity(size + 1);
+    int i = offset + size;
+    xs[i] = x;
+    ys[i] = y;
+    if (zs != null) {
+      zs[i] = z;
+    }
+    return size++;
+  }
+
+  /** Same as the above, but with the coordinates of the given point */
+  public int add(Point p) {
+    return add(p.x, p.y, p.z);
+  }
+
+  /** Adds all of the given points, in order */
+  public void addAll(Collection<Point> all) {
+    ensureCapacity(size + all.size());
+    for (Point p : all) {
+      add(p.x, p.y, p.z);
+    }
+  }
+
+  /**
+   * Adds the points with the given coordinates, in order.
+   *
+   * @param xs,ys the x and y coordinates of the points to add
+   * @param zs their z coordinates, or null to give them z = 0
+   */
+  public void addAll(double[] xs, double[] ys, double[] zs) {
+    if (ys.length != xs.length || (zs != null && zs.length != xs.length)) {
+      throw new IllegalArgumentException("the coordinate arrays differ in "
+        + "length!!");
+    }
+    int m = xs.length;
+    ensureCapacity(size + m);
+    int i = offset + size;
+    System.arraycopy(xs, 0, this.xs, i, m);
+    System.arraycopy(ys, 0, this.ys, i, m);
+    if (this.zs != null) {
+      if (zs != null) {
+        System.arraycopy(zs, 0, this.zs, i, m);
+      } else {
+        Arrays.fill(this.zs, i, i + m, 0);
+      }
+    }
+    size += m;
+  }
+
+  /** Same as the above, but without z coordinates */
+  public void addAll(double[] xs, double[] ys) {
+    addAll(xs, ys, null);
+  }
+
+  /** Adds all of the points of the given buffer, in order */
+  public void addAll(PointBuffer other) {
+    int m = other.size;
+    ensureCapacity(size + m);
+    int i = offset + size;
+    System.arraycopy(other.xs, other.offset, xs, i, m);
+    System.arraycopy(other.ys, other.offset, ys, i, m);
+    if (zs != null) {
+      if (other.zs != null) {
+        System.arraycopy(other.zs, other.offset, zs, i, m);
+      } else {
+        Arrays.fill(zs, i, i + m, 0);
+      }
+    }
+    size += m;
+  }
+
+  /**
+   * Makes room for at least the given amount of points, so that adding that
+   * many does not copy the arrays again.
+   */
+  public void ensureCapacity(int capacity) {
+    if (view && capacity > size) {
+      // the room after a view belongs to the buffer it was taken from
+      throw new IllegalArgumentException("a view on another buffer can not "
+        + "grow!!");
+    }
+    if (offset + capacity <= xs.length) {
+      return;
+    }
+    int grown = (int)Math.min(Math.max(2L * xs.length, capacity),
+      Integer.MAX_VALUE - 8);
+    if (grown < capacity) {
+      throw new IllegalArgumentException("can not hold " + capacity
+        + " points!!");
+    }
+    xs = Arrays.copyOf(xs, grown);
+    ys = Arrays.copyOf(ys, grown);
+    if (zs != null) {
+      zs = Arrays.copyOf(zs, grown);
+    }
+  }
+
+  /** Lets go of the room that is not used by any point */
+  public void trimToSize() {
+    if (!view && size < xs.length) {
+      xs = Arrays.copyOf(xs, size);
+      ys = Arrays.copyOf(ys, size);
+      if (zs != null) {
+        zs = Arrays.copyOf(zs, size);
+      }
+    }
+  }
+
+  /** Removes all points (but keeps the room they took) */
+  public void clear() {
+    if (view) {
+      throw new IllegalArgumentException("a view on another buffer can not "
+        + "shrink!!");
+    }
+    size = 0;
+  }
+
+  /*****************************************************************************
+   *                           ACCESS
+   ****************************************************************************/
+  /** @return the amount of points */
+  public int size() {
+    return size;
+  }
+
+  /** @return whether the points have z coordinates */
+  public boolean hasZ() {
+    return zs != null;
+  }
+
+  /** @return the x coordinate of point i */
+  public double x(int i) {
+    return xs[offset + i];
+  }
+
+  /** @return the y coordinate of point i */
+  public double y(int i) {
+    return ys[offset + i];
+  }
+
+  /** @return the z coordinate of point i, or 0 if the points have none */
+  public double z(int i) {
+    return (zs == null) ? 0 : zs[offset + i];
+  }
+
+  /** Moves point i to the given coordinates */
+  public void set(int i, double x, double y) {
+    xs[offset + i] = x;
+    ys[offset + i] = y;
+  }
+
+  /** Same as the above, but also moves its z coordinate (if it has one) */
+  public void set(int i, double x, double y, double z) {
+    set(i, x, y);
+    if (zs != null) {
+      zs[offset + i] = z;
+    }
+  }
+
+  /** @return point i as a new Point */
+  public Point point(int i) {
+    return new Point(x(i), y(i), z(i));
+  }
+
+  /**
+   * Creates a view on the points from index from (inclusive) to index to
+   * (exclusive): point i of the view is point from + i of this buffer, and
+   * changes to either are seen by both.
+   *
+   * @return the view
+   */
+  public PointBuffer slice(int from, int to) {
+    if (from < 0 || to > size || from > to) {
+      throw new IllegalArgumentException("the slice [" + from + ", " + to
+        + ") does not fit in " + size + " points!!");
+    }
+    return new PointBuffer(this, from, to);
+  }
+
+  /** @return a copy of the points that no longer shares its arrays */
+  public PointBuffer copy() {
+    return new PointBuffer(xs(), ys(), (zs == null) ? null : zs());
+  }
+
+  /** @return a copy of the x coordinates of the points */
+  public double[] xs() {
+    return Arrays.copyOfRange(xs, offset, offset + size);
+  }
+
+  /** @return a copy of the y coordinates of the points */
+  public double[] ys() {
+    return Arrays.copyOfRange(ys, offset, offset + size);
+  }
+
+  /** @return a copy of the z coordinates of the points (zeros if none) */
+  public double[] zs() {
+    return (zs == null) ? new double[size]
+      : Arrays.copyOfRange(zs, offset, offset + size);
+  }
+
+  /** @return the points as a list of new Points */
+  public ArrayList<Point> toList() {
+    ArrayList<Point> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(point(i));
+    }
+    return list;
+  }
+
+  /**
+   * Gets the bounding box of the points.
+   *
+   * @return {minX, minY, maxX, maxY}, or an empty box (min > max) if there
+   *         are no points
+   */
+  public double[] bounds() {
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for (int i = offset; i < offset + size; i++) {
+      minX = Math.min(minX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxX = Math.max(maxX, xs[i]);
+      maxY = Math.max(maxY, ys[i]);
+    }
+    return new double[]{minX, minY, maxX, maxY};
+  }
+}
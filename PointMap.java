@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * A map from points to values that treats points as the same key when they are
+ * equal the way Point.equals(x, y) sees it: when both of their coordinates lie
+ * less than epsilon apart (Point.EPSILON by default). Point itself can not be
+ * hashed that way, since two points near each other may lie on opposite sides
+ * of any rounding, so a HashMap<Point, ...> compares its keys by identity and
+ * two copies of the same coordinate end up as two keys.
+ *
+ * Instead, every key is snapped to a grid of square cells epsilon wide and its
+ * cell goes into a hash table with open addressing on the two long cell
+ * coordinates. A point equal to a key lies in the key's cell or in one of the
+ * 8 around it, so a lookup probes those 9 cells and compares the few keys it
+ * finds there. Equality within epsilon is not transitive: a point that is
+ * equal to several keys is given the closest of them (the earliest if there
+ * is a tie, measuring by |dx| + |dy|).
+ *
+ * Every key gets an index, in the order the keys were added, which never
+ * changes, so the indices can serve as the vertex ids of a graph whose nodes
+ * are looked up by coordinate. Keys can not be removed.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Create a PointMap (with an epsilon, if Point.EPSILON is not the right one)
+ *  and put() values in it with Points or coordinates as keys, then get() them
+ *  back with any point that is equal to the key. add() only adds the key and
+ *  returns its index, and indexOf() finds the index of a key; key(i) and
+ *  value(i) give the key and value at an index.
+ *  PointMap.of() copies a HashMap that is keyed by Points, such as the graphs
+ *  Delaunay.delaunize() returns, merging the keys that are equal.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PointMap<V> {
+
+  /** The distance below which coordinates are the same, and the cell size */
+  private final double epsilon;
+
+  /** The coordinates, Point and value of every key, by index */
+  private double[] xs;
+  private double[] ys;
+  private Point[] keys;
+  private Object[] values;
+
+  /** The amount of keys */
+  private int size = 0;
+
+  /**
+   * The hash table of the cells: the coordinates of the cell in each slot and
+   * the last key added to it, or -1 for an empty slot. The other keys in the
+   * cell are chained through chain[].
+   */
+  private long[] cellX;
+  private long[] cellY;
+  private int[] head;
+  private int[] chain;
+
+  /** The amount of slots in use */
+  private int cells = 0;
+
+  /*****************************************************************************
+   *                           CONSTRUCTORS
+   ****************************************************************************/
+  /** Creates an empty map that compares points within Point.EPSILON */
+  public PointMap() {
+    this(Point.EPSILON);
+  }
+
+  /**
+   * Creates an empty map that compares points within the given epsilon.
+   *
+   * @param epsilon the distance below which two coordinates are the same
+   */
+  public PointMap(double epsilon) {
+    if (!(epsilon > 0)) {
+      throw new IllegalArgumentException("epsilon must be positive, not "
+        + epsilon + "!!");
+    }
+    this.epsilon = epsilon;
+    xs = new double[16];
+    ys = new double[16];
+    keys = new Point[16];
+    values = new Object[16];
+    chain = new int[16];
+    cellX = new long[32];
+    cellY = new long[32];
+    head = new int[32];
+    Arrays.fill(head, -1);
+  }
+
+  /**
+   * Copies the given map, such as a graph, into a PointMap. Keys that are
+   * equal are merged: the value of the last one added wins.
+   *
+   * @param map the map to copy, keyed by Points
+   * @return a PointMap with the same keys (merged) and values
+   */
+  public static <V> PointMap<V> of(HashMap<Point, V> map) {
+    PointMap<V> copy = new PointMap<>();
+    for (Map.Entry<Point, V> entry : map.entrySet()) {
+      copy.put(entry.getKey(), entry.getValue());
+    }
+    return copy;
+  }
+
+  /*****************************************************************************
+   *                           KEYS
+   ****************************************************************************/
+  /** @return the amount of keys */
+  public int size() {
+    return size;
+  }
+
+  /** @return the distance below which two coordinates are the same */
+  public double epsilon() {
+    return epsilon;
+  }
+
+  /**
+   * Finds the key equal to (x, y).
+   *
+   * @return the index of the key, or -1 if there is none
+   */
+  public int indexOf(double x, double y) {
+    long cx = cell(x), cy = cell(y);
+    int found = -1;
+    double best = Double.POSITIVE_INFINITY;
+    for (long i = cx - 1; i <= cx + 1; i++) {
+      for (long j = cy - 1; j <= cy + 1; j++) {
+        for (int k = head[slot(i, j)]; k != -1; k = chain[k]) {
+          double dx = Math.abs(xs[k] - x), dy = Math.abs(ys[k] - y);
+          if (dx < epsilon && dy < epsilon
+              && (dx + dy < best || (dx + dy == best && k < found))) {
+            best = dx + dy;
+            found = k;
+          }
+        }
+      }
+    }
+    return found;
+  }
+  /** Point parameter version of the above */
+  public int indexOf(Point p) {
+    return indexOf(p.x, p.y);
+  }
+
+  /** @return true if there is a key equal to (x, y) */
+  public boolean containsKey(double x, double y) {
+    return indexOf(x, y) != -1;
+  }
+  /** Point parameter version of the above */
+  public boolean containsKey(Point p) {
+    return indexOf(p.x, p.y) != -1;
+  }
+
+  /**
+   * Adds the point as a key without a value, unless there already is a key
+   * equal to it.
+   *
+   * @param p the key to add
+   * @return the index of the key equal to p
+   */
+  public int add(Point p) {
+    int i = indexOf(p.x, p.y);
+    return (i != -1) ? i : append(p);
+  }
+  /** Same as the above, but creates the Point only if it is a new key */
+  public int add(double x, double y) {
+    int i = indexOf(x, y);
+    return (i != -1) ? i : append(new Point(x, y));
+  }
+
+  /** @return the Point that is the key at index i */
+  public Point key(int i) {
+    check(i);
+    return keys[i];
+  }
+
+  /** @return all keys, in the order they were added */
+  public ArrayList<Point> keys() {
+    ArrayList<Point> all = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      all.add(keys[i]);
+    }
+    return all;
+  }
+
+  /*****************************************************************************
+   *                           VALUES
+   ****************************************************************************/
+  /** @return the value of the key equal to p, or null if there is none */
+  public V get(Point p) {
+    return get(p.x, p.y);
+  }
+  /** coordinate version of the above */
+  public V get(double x, double y) {
+    int i = indexOf(x, y);
+    return (i == -1) ? null : value(i);
+  }
+
+  /**
+   * Maps the key equal to p to the given value, adding p as a key if there
+   * is none.
+   *
+   * @return the value the key had before, or null if it had none
+   */
+  public V put(Point p, V value) {
+    return setValue(add(p), value);
+  }
+  /** coordinate version of the above */
+  public V put(double x, double y, V value) {
+    return setValue(add(x, y), value);
+  }
+
+  /** @return the value of the key at index i, or null if it has none */
+  @SuppressWarnings("unchecked")
+  public V value(int i) {
+    check(i);
+    return (V)values[i];
+  }
+
+  /**
+   * Sets the value of the key at index i.
+   *
+   * @return the value the key had before, or null if it had none
+   */
+  public V setValue(int i, V value) {
+    V old = value(i);
+    values[i] = value;
+    return old;
+  }
+
+  /*****************************************************************************
+   *                           HASH TABLE
+   ****************************************************************************/
+  /* Adds p as a new key, which must not be equal to any other key */
+  private int append(Point p) {
+    if (size == keys.length) {
+      int capacity = 2 * size;
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+      chain = Arrays.copyOf(chain, capacity);
+    }
+    if (2 * (cells + 1) > head.length) {
+      rehash(2 * head.length);
+    }
+    int i = size++;
+    xs[i] = p.x;
+    ys[i] = p.y;
+    keys[i] = p;
+    link(i);
+    return i;
+  }
+
+  /* Puts key i at the head of the chain of its cell */
+  private void link(int i) {
+    long cx = cell(xs[i]), cy = cell(ys[i]);
+    int slot = slot(cx, cy);
+    if (head[slot] == -1) {
+      cellX[slot] = cx;
+      cellY[slot] = cy;
+      cells++;
+    }
+    chain[i] = head[slot];
+    head[slot] = i;
+  }
+
+  /* Grows the hash table to the given amount of slots */
+  private void rehash(int capacity) {
+    cellX = new long[capacity];
+    cellY = new long[capacity];
+    head = new int[capacity];
+    Arrays.fill(head, -1);
+    cells = 0;
+    for (int i = 0; i < size; i++) {
+      link(i);
+    }
+  }
+
+  /**
+   * Finds the slot of the cell (cx, cy) by linear probing: the slot that holds
+   * it, or the empty slot it would go in.
+   */
+  private int slot(long cx, long cy) {
+    int mask = head.length - 1;
+    long hash = (cx * 0x9E3779B97F4A7C15L + cy) * 0xC2B2AE3D27D4EB4FL;
+    int slot = (int)(hash >>> 32) & mask;
+    while (head[slot] != -1 && (cellX[slot] != cx || cellY[slot] != cy)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /* The cell coordinate of the given coordinate */
+  private long cell(double d) {
+    return (long)Math.floor(d / epsilon);
+  }
+
+  /* Checks that i is the index of a key */
+  private void check(int i) {
+    if (i < 0 || i >= size) {
+      throw new IllegalArgumentException("index " + i + " out of bounds for "
+        + size + " keys!!");
+    }
+  }
+}
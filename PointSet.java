@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * A set of points that treats points as the same when both of their
+ * coordinates lie less than epsilon apart (Point.EPSILON by default), like
+ * Point.equals(x, y) does. It is a PointMap without values: the points are
+ * snapped to a hash grid of cells epsilon wide, and a lookup probes the cell
+ * of a point and the 8 around it.
+ *
+ * Every point in the set has an index, in the order the points were added,
+ * so the set can number the nodes of a graph: adjacency() turns a graph keyed
+ * by Points into lists of neighbour indices, merging nodes that are copies of
+ * the same coordinate.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ *  PointMap.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Create a PointSet (with an epsilon, if Point.EPSILON is not the right one)
+ *  or call PointSet.of() with a collection of Points, add() points to it and
+ *  check whether it contains() others. indexOf() gives the index of the point
+ *  equal to a coordinate and get(i) the point at an index.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PointSet {
+
+  /** The points, as the keys of a map without values */
+  private final PointMap<Void> map;
+
+  /*****************************************************************************
+   *                           CONSTRUCTORS
+   ****************************************************************************/
+  /** Creates an empty set that compares points within Point.EPSILON */
+  public PointSet() {
+    map = new PointMap<>();
+  }
+
+  /**
+   * Creates an empty set that compares points within the given epsilon.
+   *
+   * @param epsilon the distance below which two coordinates are the same
+   */
+  public PointSet(double epsilon) {
+    map = new PointMap<>(epsilon);
+  }
+
+  /**
+   * Creates a set of the given points, without the ones that are equal to
+   * an earlier one.
+   *
+   * @param all the points to add
+   * @return the set of the points
+   */
+  public static PointSet of(Collection<Point> all) {
+    PointSet set = new PointSet();
+    set.addAll(all);
+    return set;
+  }
+
+  /*****************************************************************************
+   *                           POINTS
+   ****************************************************************************/
+  /** @return the amount of points */
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * Adds the point, unless the set already contains a point equal to it.
+   *
+   * @return true if the point was added
+   */
+  public boolean add(Point p) {
+    int size = map.size();
+    return map.add(p) == size;
+  }
+
+  /** Adds all of the given points, see add() */
+  public void addAll(Collection<Point> all) {
+    for (Point p : all) {
+      map.add(p);
+    }
+  }
+
+  /** @return true if the set contains a point equal to p */
+  public boolean contains(Point p) {
+    return map.containsKey(p);
+  }
+  /** coordinate version of the above */
+  public boolean contains(double x, double y) {
+    return map.containsKey(x, y);
+  }
+
+  /**
+   * Finds the point equal to p, or the closest of them if there are more.
+   *
+   * @return the index of the point, or -1 if there is none
+   */
+  public int indexOf(Point p) {
+    return map.indexOf(p);
+  }
+  /** coordinate version of the above */
+  public int indexOf(double x, double y) {
+    return map.indexOf(x, y);
+  }
+
+  /**
+   * Same as indexOf(), but adds p if the set has no point equal to it.
+   *
+   * @return the index of the point equal to p
+   */
+  public int index(Point p) {
+    return map.add(p);
+  }
+
+  /** @return the point at index i */
+  public Point get(int i) {
+    return map.key(i);
+  }
+
+  /** @return the points, in the order they were added */
+  public ArrayList<Point> toList() {
+    return map.keys();
+  }
+
+  /*****************************************************************************
+   *                           GRAPHS
+   ****************************************************************************/
+  /**
+   * Numbers the nodes of the given graph, adding the ones that are not in the
+   * set yet, and gets the neighbours of every point in the set by index.
+   * Nodes that are equal become one node with the neighbours of all of them.
+   *
+   * @param graph an adjacency list keyed by Points, e.g. from delaunize()
+   * @return for every index in the set, the indices of its neighbours in
+   *         graph (none for points that are not in graph)
+   */
+  public int[][] adjacency(HashMap<Point, ArrayList<Point>> graph) {
+    for (Point p : graph.keySet()) {
+      map.add(p);
+    }
+    int[][] adjacency = new int[map.size()][];
+    int[] degree = new int[map.size()];
+    for (Map.Entry<Point, ArrayList<Point>> entry : graph.entrySet()) {
+      int v = map.indexOf(entry.getKey());
+      if (adjacency[v] == null) {
+        adjacency[v] = new int[entry.getValue().size()];
+      }
+      for (Point q : entry.getValue()) {
+        int w = map.add(q);
+        if (w >= adjacency.length) {
+          // a neighbour that is not a node of the graph itself
+          adjacency = Arrays.copyOf(adjacency, map.size());
+          degree = Arrays.copyOf(degree, map.size());
+        }
+        if (w == v) {
+          continue;
+        }
+        int[] neighbours = adjacency[v];
+        boolean known = false;
+        for (int i = 0; i < degree[v] && !known; i++) {
+          known = neighbours[i] == w;
+        }
+        if (!known) {
+          if (degree[v] == neighbours.length) {
+            neighbours = adjacency[v] = Arrays.copyOf(neighbours,
+              2 * degree[v] + 1);
+          }
+          neighbours[degree[v]++] = w;
+        }
+      }
+    }
+    for (int v = 0; v < adjacency.length; v++) {
+      adjacency[v] = (adjacency[v] == null) ? new int[0]
+        : Arrays.copyOf(adjacency[v], degree[v]);
+    }
+    return adjacency;
+  }
+}
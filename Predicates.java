@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Robust geometric predicates. Every predicate first evaluates its determinant
+ * in plain floating point, and only if the result is too close to zero to
+ * trust its sign (according to a bound on the rounding error) is the
+ * determinant evaluated again, exactly, using expansion arithmetic. This makes
+ * the predicates as fast as the naive formulas for nearly all inputs while
+ * never answering wrong for degenerate or nearly degenerate ones.
+ *
+ * The error bounds and the expansion arithmetic are not my own work, they are
+ * from Jonathan Shewchuk's "Adaptive Precision Floating-Point Arithmetic and
+ * Fast Robust Geometric Predicates" (1997), see
+ * https://www.cs.cmu.edu/~quake/robust.html
+ *
+ * An expansion is a double[] of nonoverlapping components in order of
+ * increasing magnitude. Its exact value is the sum of its components and its
+ * sign is the sign of its last (largest) component.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+public class Predicates {
+
+  /** Half an ulp of 1, the relative rounding error of every operation */
+  private static final double EPS = Math.ulp(1d) / 2;
+
+  /*
+   * Bounds on the rounding error of the floating point determinants. The one
+   * of orient2d is shared with the batch version in Kernels.
+   */
+  static final double ORIENT2D_BOUND = (3 + 16 * EPS) * EPS;
+  private static final double INCIRCLE_BOUND = (10 + 96 * EPS) * EPS;
+  private static final double ORIENT3D_BOUND = (7 + 56 * EPS) * EPS;
+  private static final double INSPHERE_BOUND = (16 + 224 * EPS) * EPS;
+
+  /*****************************************************************************
+   *                           PREDICATES
+   ****************************************************************************/
+  /**
+   * Checks on which side of the line through a and b the point c lies.
+   *
+   * @return +1 if a, b and c make a counter-clockwise turn, -1 if they make a
+   *         clockwise turn and 0 if they are colinear
+   */
+  public static int orient2d(double ax, double ay, double bx, double by,
+      double cx, double cy) {
+    double left = (ax - cx) * (by - cy);
+    double right = (ay - cy) * (bx - cx);
+    double det = left - right;
+    double bound = ORIENT2D_BOUND * (Math.abs(left) + Math.abs(right));
+    if (det > bound || -det > bound) {
+      return det > 0 ? +1 : -1;
+    }
+    return orient2dExact(ax, ay, bx, by, cx, cy);
+  }
+  /** Point parameter version of the above */
+  public static int orient2d(Point a, Point b, Point c) {
+    return orient2d(a.x, a.y, b.x, b.y, c.x, c.y);
+  }
+
+  /**
+   * Checks whether d lies inside the circle through a, b and c. If a, b and c
+   * are in clockwise order, the sign of the result is flipped.
+   *
+   * @return +1 if d lies inside the circle through the counter-clockwise
+   *         triangle a-b-c, -1 if it lies outside and 0 if it lies on it
+   */
+  public static int incircle(double ax, double ay, double bx, double by,
+      double cx, double cy, double dx, double dy) {
+    double adx = ax - dx, ady = ay - dy;
+    double bdx = bx - dx, bdy = by - dy;
+    double cdx = cx - dx, cdy = cy - dy;
+    double bdxcdy = bdx * cdy, cdxbdy = cdx * bdy;
+    double cdxady = cdx * ady, adxcdy = adx * cdy;
+    double adxbdy = adx * bdy, bdxady = bdx * ady;
+    double alift = adx * adx + ady * ady;
+    double blift = bdx * bdx + bdy * bdy;
+    double clift = cdx * cdx + cdy * cdy;
+    double det = alift * (bdxcdy - cdxbdy)
+               + blift * (cdxady - adxcdy)
+               + clift * (adxbdy - bdxady);
+    double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+                     + (Math.abs(cdxady) + Math.abs(adxcdy)) * blift
+                     + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+    double bound = INCIRCLE_BOUND * permanent;
+    if (det > bound || -det > bound) {
+      return det > 0 ? +1 : -1;
+    }
+    return incircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+  }
+  /** Point parameter version of the above */
+  public static int incircle(Point a, Point b, Point c, Point d) {
+    return incircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y);
+  }
+
+  /**
+   * Checks on which side of the plane through a, b and c the point d lies.
+   *
+   * @return +1 if d lies below the plane, where above is the side from which
+   *         a, b and c appear in counter-clockwise order, -1 if it lies above
+   *         it and 0 if the four points are coplanar
+   */
+  public static int orient3d(double ax, double ay, double az, double bx,
+      double by, double bz, double cx, double cy, double cz, double dx,
+      double dy, double dz) {
+    double adx = ax - dx, ady = ay - dy, adz = az - dz;
+    double bdx = bx - dx, bdy = by - dy, bdz = bz - dz;
+    double cdx = cx - dx, cdy = cy - dy, cdz = cz - dz;
+    double bdxcdy = bdx * cdy, cdxbdy = cdx * bdy;
+    double cdxady = cdx * ady, adxcdy = adx * cdy;
+    double adxbdy = adx * bdy, bdxady = bdx * ady;
+    double det = adz * (bdxcdy - cdxbdy)
+               + bdz * (cdxady - adxcdy)
+               + cdz * (adxbdy - bdxady);
+    double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * Math.abs(adz)
+                     + (Math.abs(cdxady) + Math.abs(adxcdy)) * Math.abs(bdz)
+                     + (Math.abs(adxbdy) + Math.abs(bdxady)) * Math.abs(cdz);
+    double bound = ORIENT3D_BOUND * permanent;
+    if (det > bound || -det > bound) {
+      return det > 0 ? +1 : -1;
+    }
+    return orient3dExact(ax, ay, az, bx, by, bz, cx, cy, cz, dx, dy, dz);
+  }
+  /** Point parameter version of the above */
+  public static int orient3d(Point a, Point b, Point c, Point d) {
+    return orient3d(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z);
+  }
+
+  /**
+   * Checks whether e lies inside the sphere through a, b, c and d. If
+   * orient3d(a, b, c, d) is negative, the sign of the result is flipped.
+   *
+   * @return +1 if e lies inside the sphere through the tetrahedron a-b-c-d
+   *         with orient3d(a, b, c, d) > 0, -1 if it lies outside and 0 if it
+   *         lies on it
+   */
+  public static int insphere(double ax, double ay, double az, double bx,
+      double by, double bz, double cx, double cy, double cz, double dx,
+      double dy, double dz, double ex, double ey, double ez) {
+    double aex = ax - ex, aey = ay - ey, aez = az - ez;
+    double bex = bx - ex, bey = by - ey, bez = bz - ez;
+    double cex = cx - ex, cey = cy - ey, cez = cz - ez;
+    double dex = dx - ex, dey = dy - ey, dez = dz - ez;
+    double aexbey = aex * bey, bexaey = bex * aey;
+    double bexcey = bex * cey, cexbey = cex * bey;
+    double cexdey = cex * dey, dexcey = dex * cey;
+    double dexaey = dex * aey, aexdey = aex * dey;
+    double aexcey = aex * cey, cexaey = cex * aey;
+    double bexdey = bex * dey, dexbey = dex * bey;
+    double ab = aexbey - bexaey;
+    double bc = bexcey - cexbey;
+    double cd = cexdey - dexcey;
+    double da = dexaey - aexdey;
+    double ac = aexcey - cexaey;
+    double bd = bexdey - dexbey;
+    double abc = aez * bc - bez * ac + cez * ab;
+    double bcd = bez * cd - cez * bd + dez * bc;
+    double cda = cez * da + dez * ac + aez * cd;
+    double dab = dez * ab + aez * bd + bez * da;
+    double alift = aex * aex + aey * aey + aez * aez;
+    double blift = bex * bex + bey * bey + bez * bez;
+    double clift = cex * cex + cey * cey + cez * cez;
+    double dlift = dex * dex + dey * dey + dez * dez;
+    double det = (dlift * abc - clift * dab) + (blift * cda - alift * bcd);
+    double aezp = Math.abs(aez), bezp = Math.abs(bez);
+    double cezp = Math.abs(cez), dezp = Math.abs(dez);
+    double abp = Math.abs(aexbey) + Math.abs(bexaey);
+    double bcp = Math.abs(bexcey) + Math.abs(cexbey);
+    double cdp = Math.abs(cexdey) + Math.abs(dexcey);
+    double dap = Math.abs(dexaey) + Math.abs(aexdey);
+    double acp = Math.abs(aexcey) + Math.abs(cexaey);
+    double bdp = Math.abs(bexdey) + Math.abs(dexbey);
+    double permanent = (cdp * bezp + bdp * cezp + bcp * dezp) * alift
+                     + (dap * cezp + acp * dezp + cdp * aezp) * blift
+                     + (abp * dezp + bdp * aezp + dap * bezp) * clift
+                     + (bcp * aezp + acp * bezp + abp * cezp) * dlift;
+    double bound = INSPHERE_BOUND * permanent;
+    if (det > bound || -det > bound) {
+      return det > 0 ? +1 : -1;
+    }
+    return insphereExact(ax, ay, az, bx, by, bz, cx, cy, cz, dx, dy, dz,
+      ex, ey, ez);
+  }
+  /** Point parameter version of the above */
+  public static int insphere(Point a, Point b, Point c, Point d, Point e) {
+    return insphere(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z,
+      e.x, e.y, e.z);
+  }
+
+  /*****************************************************************************
+   *                           EXACT EVALUATION
+   ****************************************************************************/
+  /* Evaluates the orient2d determinant exactly */
+  private static int orient2dExact(double ax, double ay, double bx, double by,
+      double cx, double cy) {
+    double[] acx = diff(ax, cx), acy = diff(ay, cy);
+    double[] bcx = diff(bx, cx), bcy = diff(by, cy);
+    double[] det = sum(mul(acx, bcy), negate(mul(acy, bcx)));
+    return sign(det);
+  }
+
+  /* Evaluates the incircle determinant exactly */
+  private static int incircleExact(double ax, double ay, double bx, double by,
+      double cx, double cy, double dx, double dy) {
+    double[] adx = diff(ax, dx), ady = diff(ay, dy);
+    double[] bdx = diff(bx, dx), bdy = diff(by, dy);
+    double[] cdx = diff(cx, dx), cdy = diff(cy, dy);
+    double[] alift = sum(mul(adx, adx), mul(ady, ady));
+    double[] blift = sum(mul(bdx, bdx), mul(bdy, bdy));
+    double[] clift = sum(mul(cdx, cdx), mul(cdy, cdy));
+    double[] bc = sum(mul(bdx, cdy), negate(mul(cdx, bdy)));
+    double[] ca = sum(mul(cdx, ady), negate(mul(adx, cdy)));
+    double[] ab = sum(mul(adx, bdy), negate(mul(bdx, ady)));
+    double[] det = sum(sum(mul(alift, bc), mul(blift, ca)), mul(clift, ab));
+    return sign(det);
+  }
+
+  /* Evaluates the orient3d determinant exactly */
+  private static int orient3dExact(double ax, double ay, double az, double bx,
+      double by, double bz, double cx, double cy, double cz, double dx,
+      double dy, double dz) {
+    double[] adx = diff(ax, dx), ady = diff(ay, dy), adz = diff(az, dz);
+    double[] bdx = diff(bx, dx), bdy = diff(by, dy), bdz = diff(bz, dz);
+    double[] cdx = diff(cx, dx), cdy = diff(cy, dy), cdz = diff(cz, dz);
+    double[] bc = sum(mul(bdx, cdy), negate(mul(cdx, bdy)));
+    double[] ca = sum(mul(cdx, ady), negate(mul(adx, cdy)));
+    double[] ab = sum(mul(adx, bdy), negate(mul(bdx, ady)));
+    double[] det = sum(sum(mul(adz, bc), mul(bdz, ca)), mul(cdz, ab));
+    return sign(det);
+  }
+
+  /* Evaluates the insphere determinant exactly */
+  private static int insphereExact(double ax, double ay, double az, double bx,
+      double by, double bz, double cx, double cy, double cz, double dx,
+      double dy, double dz, double ex, double ey, double ez) {
+    double[] aex = diff(ax, ex), aey = diff(ay, ey), aez = diff(az, ez);
+    double[] bex = diff(bx, ex), bey = diff(by, ey), bez = diff(bz, ez);
+    double[] cex = diff(cx, ex), cey = diff(cy, ey), cez = diff(cz, ez);
+    double[] dex = diff(dx, ex), dey = diff(dy, ey), dez = diff(dz, ez);
+    double[] ab = sum(mul(aex, bey), negate(mul(bex, aey)));
+    double[] bc = sum(mul(bex, cey), negate(mul(cex, bey)));
+    double[] cd = sum(mul(cex, dey), negate(mul(dex, cey)));
+    double[] da = sum(mul(dex, aey), negate(mul(aex, dey)));
+    double[] ac = sum(mul(aex, cey), negate(mul(cex, aey)));
+    double[] bd = sum(mul(bex, dey), negate(mul(dex, bey)));
+    double[] abc = sum(sum(mul(aez, bc), negate(mul(bez, ac))), mul(cez, ab));
+    double[] bcd = sum(sum(mul(bez, cd), negate(mul(cez, bd))), mul(dez, bc));
+    double[] cda = sum(sum(mul(cez, da), mul(dez, ac)), mul(aez, cd));
+    double[] dab = sum(sum(mul(dez, ab), mul(aez, bd)), mul(bez, da));
+    double[] alift = sum(sum(mul(aex, aex), mul(aey, aey)), mul(aez, aez));
+    double[] blift = sum(sum(mul(bex, bex), mul(bey, bey)), mul(bez, bez));
+    double[] clift = sum(sum(mul(cex, cex), mul(cey, cey)), mul(cez, cez));
+    double[] dlift = sum(sum(mul(dex, dex), mul(dey, dey)), mul(dez, dez));
+    double[] det = sum(
+      sum(mul(dlift, abc), negate(mul(clift, dab))),
+      sum(mul(blift, cda), negate(mul(alift, bcd))));
+    return sign(det);
+  }
+
+  /*****************************************************************************
+   *                           EXPANSION ARITHMETIC
+   ****************************************************************************/
+  /* The exact difference a - b as an expansion */
+  static double[] diff(double a, double b) {
+    double x = a - b;
+    double bv = a - x;
+    double av = x + bv;
+    double err = (a - av) + (bv - b);
+    return err == 0 ? new double[]{x} : new double[]{err, x};
+  }
+
+  /* The exact sum of two expansions (Shewchuk's EXPANSION-SUM) */
+  static double[] sum(double[] e, double[] f) {
+    double[] h = e;
+    for (double b : f) {
+      h = grow(h, b);
+    }
+    return h;
+  }
+
+  /* The exact sum of an expansion and a double (GROW-EXPANSION) */
+  static double[] grow(double[] e, double b) {
+    double[] h = new double[e.length + 1];
+    int len = 0;
+    double q = b;
+    for (double component : e) {
+      double x = q + component;
+      double bv = x - q;
+      double err = (q - (x - bv)) + (component - bv);
+      q = x;
+      if (err != 0) {
+        h[len++] = err;
+      }
+    }
+    if (q != 0 || len == 0) {
+      h[len++] = q;
+    }
+    return len == h.length ? h : java.util.Arrays.copyOf(h, len);
+  }
+
+  /* The exact product of an expansion and a double (SCALE-EXPANSION) */
+  static double[] scale(double[] e, double b) {
+    double[] h = new double[2 * e.length];
+    int len = 0;
+    double q = e[0] * b;
+    double err = Math.fma(e[0], b, -q);
+    if (err != 0) {
+      h[len++] = err;
+    }
+    for (int i = 1; i < e.length; i++) {
+      double p1 = e[i] * b;
+      double p0 = Math.fma(e[i], b, -p1);
+      // (sum, err) = q + p0
+      double sum = q + p0;
+      double bv = sum - q;
+      err = (q - (sum - bv)) + (p0 - bv);
+      if (err != 0) {
+        h[len++] = err;
+      }
+      // (q, err) = p1 + sum, where |p1| >= |sum|
+      q = p1 + sum;
+      err = sum - (q - p1);
+      if (err != 0) {
+        h[len++] = err;
+      }
+    }
+    if (q != 0 || len == 0) {
+      h[len++] = q;
+    }
+    return len == h.length ? h : java.util.Arrays.copyOf(h, len);
+  }
+
+  /* The exact product of two expansions */
+  static double[] mul(double[] e, double[] f) {
+    double[] h = scale(e, f[0]);
+    for (int i = 1; i < f.length; i++) {
+      h = sum(h, scale(e, f[i]));
+    }
+    return h;
+  }
+
+  /* The expansion with the opposite sign */
+  static double[] negate(double[] e) {
+    double[] h = new double[e.length];
+    for (int i = 0; i < e.length; i++) {
+      h[i] = -e[i];
+    }
+    return h;
+  }
+
+  /* The sign of an expansion */
+  static int sign(double[] e) {
+    double largest = e[e.length - 1];
+    return largest > 0 ? +1 : largest < 0 ? -1 : 0;
+  }
+}
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * A polygon that is prepared once for many point-in-polygon queries, such as
+ * checking millions of positions against a large geofence. Point.isInside()
+ * looks at every edge of the polygon on every call; this class keeps the
+ * bounding box of the polygon and cuts the box into horizontal slabs, each
+ * with the list of edges that reach into it. A query rejects points outside
+ * of the box, and otherwise only looks at the edges in the slab of its y
+ * coordinate, which for most polygons are a handful, so a query takes
+ * expected O(1) time and allocates nothing.
+ *
+ * A query counts the edges in its slab that cross the horizontal ray from the
+ * point to the right, with the half-open rule (an edge counts if it starts at
+ * or below the ray and ends above it, or the other way around) so a ray
+ * through a corner counts it once. Which side of an edge the point lies on is
+ * decided exactly by Predicates.orient2d(). Points on the boundary of the
+ * polygon, corners included, are inside. Like Point.isInside(), a polygon
+ * that crosses itself has its inside decided by the even-odd rule.
+ *
+ * The slabs are as many as the edges, unless long edges that span many slabs
+ * would make the lists more than 8 times as long as the polygon, in which case
+ * there are fewer, wider slabs.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ *  PointBuffer.java
+ *  Predicates.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Create a PreparedPolygon with the ordered corners of a polygon (the same
+ *  Point[] Point.isInside() takes), then call contains() with as many points
+ *  as needed. contains(PointBuffer) checks a whole buffer of points on
+ *  parallel threads.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.stream.IntStream;
+
+public class PreparedPolygon {
+
+  /** The coordinates of the corners, in order */
+  private final double[] xs;
+  private final double[] ys;
+
+  /** The amount of corners, and so of edges: edge i runs from i to i+1 */
+  private final int n;
+
+  /** The bounding box of the polygon */
+  private final double minX, minY, maxX, maxY;
+
+  /** The amount of slabs, and the amount of slabs per unit of y */
+  private final int slabs;
+  private final double scale;
+
+  /**
+   * The edges that reach into every slab: those of slab s are
+   * edges[start[s]] up to edges[start[s+1]].
+   */
+  private final int[] start;
+  private final int[] edges;
+
+  /*****************************************************************************
+   *                           CONSTRUCTORS
+   ****************************************************************************/
+  /**
+   * Prepares the polygon with the given corners.
+   *
+   * @param poly the corners of the polygon, in order around it
+   */
+  public PreparedPolygon(Point[] poly) {
+    this(xs(poly), ys(poly));
+  }
+
+  /**
+   * Prepares the polygon with the given corners.
+   *
+   * @param xs,ys the coordinates of the corners, in order around the polygon
+   */
+  public PreparedPolygon(double[] xs, double[] ys) {
+    if (xs.length != ys.length) {
+      throw new IllegalArgumentException("xs and ys differ in length ("
+        + xs.length + " != " + ys.length + ")!!");
+    }
+    if (xs.length < 3) {
+      throw new IllegalArgumentException("a polygon needs at least 3 "
+        + "corners, not " + xs.length + "!!");
+    }
+    this.xs = xs.clone();
+    this.ys = ys.clone();
+    this.n = xs.length;
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      minX = Math.min(minX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxX = Math.max(maxX, xs[i]);
+      maxY = Math.max(maxY, ys[i]);
+    }
+    this.minX = minX;
+    this.minY = minY;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    // halve the slabs until the lists fit in 8 entries per edge
+    int slabs = n;
+    while (slabs > 1 && entries(slabs) > 8L * n) {
+      slabs /= 2;
+    }
+    this.slabs = slabs;
+    this.scale = (maxY > minY) ? slabs / (maxY - minY) : 0;
+    // count the edges of every slab, then fill the lists
+    start = new int[slabs + 1];
+    for (int i = 0; i < n; i++) {
+      for (int s = low(i); s <= high(i); s++) {
+        start[s + 1]++;
+      }
+    }
+    for (int s = 0; s < slabs; s++) {
+      start[s + 1] += start[s];
+    }
+    edges = new int[start[slabs]];
+    int[] fill = start.clone();
+    for (int i = 0; i < n; i++) {
+      for (int s = low(i); s <= high(i); s++) {
+        edges[fill[s]++] = i;
+      }
+    }
+  }
+
+  /* The x coordinates of the given points */
+  private static double[] xs(Point[] poly) {
+    double[] xs = new double[poly.length];
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = poly[i].x;
+    }
+    return xs;
+  }
+
+  /* The y coordinates of the given points */
+  private static double[] ys(Point[] poly) {
+    double[] ys = new double[poly.length];
+    for (int i = 0; i < ys.length; i++) {
+      ys[i] = poly[i].y;
+    }
+    return ys;
+  }
+
+  /** @return the amount of corners of the polygon */
+  public int size() {
+    return n;
+  }
+
+  /** @return the bounding box of the polygon as {minX, minY, maxX, maxY} */
+  public double[] bounds() {
+    return new double[]{minX, minY, maxX, maxY};
+  }
+
+  /*****************************************************************************
+   *                           QUERIES
+   ****************************************************************************/
+  /**
+   * Checks whether the point (x, y) lies inside the polygon or on its
+   * boundary.
+   *
+   * @return true if (x, y) lies inside the polygon or on its boundary
+   */
+  public boolean contains(double x, double y) {
+    if (!(x >= minX && x <= maxX && y >= minY && y <= maxY)) {
+      return false;
+    }
+    boolean inside = false;
+    int s = slab(y);
+    for (int k = start[s]; k < start[s + 1]; k++) {
+      int i = edges[k];
+      int j = (i + 1 == n) ? 0 : i + 1;
+      double ax = xs[i], ay = ys[i], bx = xs[j], by = ys[j];
+      if ((ay < y && by < y) || (ay > y && by > y)) {
+        continue;
+      }
+      int side = Predicates.orient2d(ax, ay, bx, by, x, y);
+      if (side == 0) {
+        if (Math.min(ax, bx) <= x && x <= Math.max(ax, bx)) {
+          // on the edge
+          return true;
+        }
+        continue;
+      }
+      // count edges that start at or below the ray and end above it (with
+      // the point on their left), or the other way around (on their right)
+      if ((ay <= y && by > y && side > 0) || (by <= y && ay > y && side < 0)) {
+        inside = !inside;
+      }
+    }
+    return inside;
+  }
+  /** Point parameter version of the above */
+  public boolean contains(Point p) {
+    return contains(p.x, p.y);
+  }
+
+  /**
+   * Checks for every point in the given buffer whether it lies inside the
+   * polygon, see contains(), on parallel threads.
+   *
+   * @param ps the points to check
+   * @return for every point in ps, whether it lies inside the polygon
+   */
+  public boolean[] contains(PointBuffer ps) {
+    boolean[] inside = new boolean[ps.size()];
+    IntStream.range(0, inside.length).parallel()
+      .forEach(i -> inside[i] = contains(ps.x(i), ps.y(i)));
+    return inside;
+  }
+
+  /*****************************************************************************
+   *                           SLABS
+   ****************************************************************************/
+  /* The slab that the y coordinate lies in, clamped to the box */
+  private int slab(double y) {
+    int s = (int)((y - minY) * scale);
+    return Math.max(0, Math.min(slabs - 1, s));
+  }
+
+  /* The lowest and highest slab that edge i reaches into */
+  private int low(int i) {
+    return slab(Math.min(ys[i], ys[(i + 1 == n) ? 0 : i + 1]));
+  }
+  private int high(int i) {
+    return slab(Math.max(ys[i], ys[(i + 1 == n) ? 0 : i + 1]));
+  }
+
+  /* The total length of the lists of edges if there were the given slabs */
+  private long entries(int slabs) {
+    double scale = (maxY > minY) ? slabs / (maxY - minY) : 0;
+    long entries = 0;
+    for (int i = 0; i < n; i++) {
+      int j = (i + 1 == n) ? 0 : i + 1;
+      int low = (int)((Math.min(ys[i], ys[j]) - minY) * scale);
+      int high = (int)((Math.max(ys[i], ys[j]) - minY) * scale);
+      entries += Math.min(high, slabs - 1) - Math.min(low, slabs - 1) + 1;
+    }
+    return entries;
+  }
+}
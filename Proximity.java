@@ -0,0 +1,447 @@
+/*******************************************************************************
+ * Proximity graphs that are subgraphs of the Delaunay triangulation, computed
+ * from it instead of from all pairs of points.
+ *
+ * The Euclidean minimum spanning tree (EMST) connects all points with the
+ * shortest total edge length. Every edge of it is a Delaunay edge, so
+ * Kruskal's algorithm only has to look at the 3n edges of the triangulation:
+ * they are sorted by length with a (parallel) radix sort and added shortest
+ * first unless a union-find on primitive arrays says their ends are already
+ * connected, which takes O(n log n) time in total.
+ *
+ * The Gabriel graph keeps the edges whose diametral circle holds no other
+ * point, and the relative neighbourhood graph (RNG) those whose lune (the
+ * points closer to both ends than they are to each other) is empty. Both are
+ * found in one pass over the Delaunay edges: a Delaunay edge's diametral
+ * circle is empty if the corners across from it are outside, and its lune is
+ * searched from one end a over the vertices closer to a than the other end.
+ * That search reaches every point in the lune, since every Delaunay vertex has
+ * a neighbour that is closer to a than itself. It costs as much as there are
+ * vertices within that distance of a, which is a handful for evenly spread
+ * points but can make the whole RNG take O(n^2) time when many long Gabriel
+ * edges end in dense clusters of points.
+ *
+ * The alpha shape of the points, for a radius alpha, is the boundary of the
+ * alpha complex: the Delaunay triangles with a circumradius below alpha, and
+ * the edges that lie on them or whose diametral circle is empty and smaller
+ * than alpha. Small values of alpha give concave hulls that follow the
+ * points; an infinite alpha gives their convex hull.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ *  PointBuffer.java
+ *  Triangulation.java
+ *  Delaunay.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Call Proximity.emst() with an arraylist of Points to get the tree as a graph
+ *  (the same adjacency list Delaunay.delaunize() returns, so e.g.
+ *  CoreGeom.graphLength() works on it), or with a PointBuffer or Triangulation
+ *  to get its edges as pairs of vertex ids. gabriel(), rng() and alphaShape()
+ *  work the same way.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class Proximity {
+
+  /*****************************************************************************
+   *                           MINIMUM SPANNING TREE
+   ****************************************************************************/
+  /**
+   * Creates the Euclidean minimum spanning tree of all of the given points.
+   *
+   * @param all the list of all Points on some map
+   * @return the tree in the form of an adjacency list: every Point mapped to
+   *         the Points it is connected to in the tree
+   */
+  public static HashMap<Point, ArrayList<Point>> emst(ArrayList<Point> all) {
+    Triangulation t = Delaunay.triangulation(all);
+    return graph(t, emst(t));
+  }
+
+  /**
+   * Creates the Euclidean minimum spanning tree of the points in the given
+   * buffer.
+   *
+   * @param ps the points on some map
+   * @return the edges of the tree as pairs of indices into ps, see the below
+   */
+  public static int[] emst(PointBuffer ps) {
+    return emst(Delaunay.triangulation(ps));
+  }
+
+  /** Same as the below, but sorts the edges on the calling thread only */
+  public static int[] emst(Triangulation t) {
+    return emst(t, null);
+  }
+
+  /**
+   * Creates the Euclidean minimum spanning tree of the vertices of the given
+   * delaunay-triangulation with Kruskal's algorithm over its edges.
+   *
+   * @param t the delaunay-triangulation of the points
+   * @param pool the pool to sort the edges on, or null to sort them on the
+   *        calling thread
+   * @return the edges of the tree, shortest first, as the vertex ids of their
+   *         ends: edge i connects [2i] and [2i+1]. Vertices without edges
+   *         (duplicates) are not part of the tree.
+   */
+  public static int[] emst(Triangulation t, ForkJoinPool pool) {
+    int[] origin = t.origin;
+    int[] sorted = byLength(t, pool);
+    // a root holds minus the size of its set, any other vertex its parent
+    int[] parent = new int[t.n];
+    Arrays.fill(parent, -1);
+    int[] tree = new int[2 * Math.max(t.n - 1, 0)];
+    int count = 0;
+    for (int i = 0; i < sorted.length && count < tree.length; i++) {
+      int e = sorted[i];
+      int a = find(parent, origin[e]);
+      int b = find(parent, origin[e ^ 1]);
+      if (a == b) {
+        continue;
+      }
+      // hang the smaller set under the larger
+      if (parent[a] > parent[b]) {
+        int swap = a;
+        a = b;
+        b = swap;
+      }
+      parent[a] += parent[b];
+      parent[b] = a;
+      tree[count++] = origin[e];
+      tree[count++] = origin[e ^ 1];
+    }
+    return Arrays.copyOf(tree, count);
+  }
+
+  /* Finds the root of the set of v, halving the path to it on the way */
+  private static int find(int[] parent, int v) {
+    while (parent[v] >= 0) {
+      if (parent[parent[v]] >= 0) {
+        parent[v] = parent[parent[v]];
+      }
+      v = parent[v];
+    }
+    return v;
+  }
+
+  /**
+   * Sorts the edges of the triangulation by length with Delaunay's radix
+   * sort, on the bits of their squared lengths.
+   *
+   * @return one half-edge of every edge, shortest edge first
+   */
+  private static int[] byLength(Triangulation t, ForkJoinPool pool) {
+    int m = t.edges;
+    long[] keys = new long[m];
+    int[] ids = new int[m];
+    int count = 0;
+    for (int e = 0; e < t.top; e += 2) {
+      int a = t.origin[e];
+      if (a == -1) {
+        continue;
+      }
+      int b = t.origin[e ^ 1];
+      double dx = t.xs[b] - t.xs[a], dy = t.ys[b] - t.ys[a];
+      keys[count] = Delaunay.key(dx * dx + dy * dy);
+      ids[count++] = e;
+    }
+    Delaunay.Radix radix = new Delaunay.Radix(keys, ids, pool);
+    radix.sort(0, count, 64);
+    return radix.ids;
+  }
+
+  /*****************************************************************************
+   *                           GABRIEL AND RELATIVE NEIGHBOURHOOD GRAPHS
+   ****************************************************************************/
+  /**
+   * Creates the Gabriel graph of all of the given points.
+   *
+   * @param all the list of all Points on some map
+   * @return the graph in the form of an adjacency list
+   */
+  public static HashMap<Point, ArrayList<Point>> gabriel(ArrayList<Point> all) {
+    Triangulation t = Delaunay.triangulation(all);
+    return graph(t, gabriel(t));
+  }
+
+  /**
+   * Creates the Gabriel graph of the vertices of the given
+   * delaunay-triangulation: the edges with no other vertex inside or on the
+   * circle they are the diameter of.
+   *
+   * @param t the delaunay-triangulation of the points
+   * @return the edges as pairs of vertex ids: edge i connects [2i] and [2i+1]
+   */
+  public static int[] gabriel(Triangulation t) {
+    int[] edges = new int[2 * t.edges];
+    int count = 0;
+    for (int e = 0; e < t.top; e += 2) {
+      if (t.origin[e] != -1 && isGabriel(t, e)) {
+        edges[count++] = t.origin[e];
+        edges[count++] = t.origin[e ^ 1];
+      }
+    }
+    return Arrays.copyOf(edges, count);
+  }
+
+  /**
+   * Creates the relative neighbourhood graph of all of the given points.
+   *
+   * @param all the list of all Points on some map
+   * @return the graph in the form of an adjacency list
+   */
+  public static HashMap<Point, ArrayList<Point>> rng(ArrayList<Point> all) {
+    Triangulation t = Delaunay.triangulation(all);
+    return graph(t, rng(t));
+  }
+
+  /**
+   * Creates the relative neighbourhood graph of the vertices of the given
+   * delaunay-triangulation: the edges ab with no vertex c closer to both a
+   * and b than they are to each other. Only the Gabriel edges have to be
+   * checked, each against the vertices closer to a than b is (see
+   * isEmptyLune()). That is O(n) time in total for evenly spread points,
+   * whose Delaunay edges are short, but O(n^2) in the worst case, when many
+   * long edges end in dense clusters of points.
+   *
+   * @param t the delaunay-triangulation of the points
+   * @return the edges as pairs of vertex ids: edge i connects [2i] and [2i+1]
+   */
+  public static int[] rng(Triangulation t) {
+    int[] edges = new int[2 * t.edges];
+    int count = 0;
+    int[] mark = new int[t.n];
+    int[] queue = new int[t.n];
+    for (int e = 0; e < t.top; e += 2) {
+      if (t.origin[e] != -1 && isGabriel(t, e)
+          && isEmptyLune(t, e, mark, queue)) {
+        edges[count++] = t.origin[e];
+        edges[count++] = t.origin[e ^ 1];
+      }
+    }
+    return Arrays.copyOf(edges, count);
+  }
+
+  /**
+   * Checks whether the circle with the edge of e as its diameter is empty: the
+   * corner across from the edge in the triangle on either side lies outside
+   * of it. If any vertex lies inside or on the circle, one of those does.
+   */
+  private static boolean isGabriel(Triangulation t, int e) {
+    int a = t.origin[e], b = t.origin[e ^ 1];
+    for (int s : new int[]{e, e ^ 1}) {
+      if (t.isTriangle(s)) {
+        int c = t.origin[t.prev[s]];
+        double ax = t.xs[a] - t.xs[c], ay = t.ys[a] - t.ys[c];
+        double bx = t.xs[b] - t.xs[c], by = t.ys[b] - t.ys[c];
+        if (ax * bx + ay * by <= 0) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether no vertex is closer to both ends a and b of e than they are
+   * to each other, with a breadth first search from a over the vertices
+   * closer to a than b is. This takes time proportional to the amount of
+   * those vertices and their edges, which can be far more than lie in the
+   * lune.
+   *
+   * @param mark the edge (e / 2 + 1) every vertex was last visited for
+   * @param queue room for the vertices that are visited
+   */
+  private static boolean isEmptyLune(Triangulation t, int e, int[] mark,
+      int[] queue) {
+    int a = t.origin[e], b = t.origin[e ^ 1];
+    double ab = distance2(t, a, b);
+    int stamp = (e >> 1) + 1;
+    mark[a] = mark[b] = stamp;
+    int size = 0;
+    queue[size++] = a;
+    for (int i = 0; i < size; i++) {
+      int first = t.incident[queue[i]];
+      int f = first;
+      do {
+        int c = t.origin[f ^ 1];
+        if (mark[c] != stamp) {
+          mark[c] = stamp;
+          if (distance2(t, c, a) < ab) {
+            if (distance2(t, c, b) < ab) {
+              return false;
+            }
+            queue[size++] = c;
+          }
+        }
+        f = t.onext(f);
+      } while (f != first);
+    }
+    return true;
+  }
+
+  /* The squared distance between vertices u and v */
+  private static double distance2(Triangulation t, int u, int v) {
+    double dx = t.xs[v] - t.xs[u], dy = t.ys[v] - t.ys[u];
+    return dx * dx + dy * dy;
+  }
+
+  /*****************************************************************************
+   *                           ALPHA SHAPES
+   ****************************************************************************/
+  /**
+   * Creates the alpha shape of all of the given points.
+   *
+   * @param all the list of all Points on some map
+   * @param alpha the radius of the disks that carve out the shape
+   * @return the edges of the shape in the form of an adjacency list
+   */
+  public static HashMap<Point, ArrayList<Point>> alphaShape(
+      ArrayList<Point> all, double alpha) {
+    Triangulation t = Delaunay.triangulation(all);
+    return graph(t, alphaShape(t, alpha));
+  }
+
+  /**
+   * Creates the alpha shape of the vertices of the given
+   * delaunay-triangulation: the edges of the alpha complex that do not have
+   * a triangle of the complex on both sides.
+   *
+   * @param t the delaunay-triangulation of the points
+   * @param alpha the radius of the disks that carve out the shape
+   * @return the edges as pairs of vertex ids: edge i connects [2i] and
+   *         [2i+1], with the triangles of the complex on its left (if any)
+   */
+  public static int[] alphaShape(Triangulation t, double alpha) {
+    boolean[] inside = alphaInside(t, alpha);
+    double limit = 4 * alpha * alpha;
+    int[] edges = new int[2 * t.edges];
+    int count = 0;
+    for (int e = 0; e < t.top; e += 2) {
+      int a = t.origin[e];
+      if (a == -1 || (inside[e] == inside[e ^ 1] && (inside[e]
+          || !isShort(t, e, limit) || !isGabriel(t, e)))) {
+        // inside the complex, or not part of it at all
+        continue;
+      }
+      int s = inside[e ^ 1] ? e ^ 1 : e;
+      edges[count++] = t.origin[s];
+      edges[count++] = t.origin[s ^ 1];
+    }
+    return Arrays.copyOf(edges, count);
+  }
+
+  /**
+   * Gets the triangles of the alpha complex of the vertices of the given
+   * delaunay-triangulation: those with a circumradius below alpha.
+   *
+   * @param t the delaunay-triangulation of the points
+   * @param alpha the radius of the disks that carve out the shape
+   * @return the corners of triangle i at [3i], [3i+1] and [3i+2], in
+   *         counter-clockwise order
+   */
+  public static int[] alphaTriangles(Triangulation t, double alpha) {
+    double limit = alpha * alpha;
+    return t.triangleEdges()
+      .filter(e -> circumradius2(t, e) < limit)
+      .flatMap(e -> IntStream.of(t.origin[e],
+        t.origin[t.next[e]], t.origin[t.prev[e]]))
+      .toArray();
+  }
+
+  /**
+   * Marks every half-edge with a triangle of the alpha complex on its left.
+   */
+  private static boolean[] alphaInside(Triangulation t, double alpha) {
+    boolean[] inside = new boolean[t.top];
+    double limit = alpha * alpha;
+    t.triangleEdges().forEach(e -> {
+      if (circumradius2(t, e) < limit) {
+        inside[e] = inside[t.next[e]] = inside[t.prev[e]] = true;
+      }
+    });
+    return inside;
+  }
+
+  /* The squared circumradius of the triangle left of e */
+  private static double circumradius2(Triangulation t, int e) {
+    int a = t.origin[e], b = t.origin[t.next[e]], c = t.origin[t.prev[e]];
+    double abx = t.xs[b] - t.xs[a], aby = t.ys[b] - t.ys[a];
+    double bcx = t.xs[c] - t.xs[b], bcy = t.ys[c] - t.ys[b];
+    double cax = t.xs[a] - t.xs[c], cay = t.ys[a] - t.ys[c];
+    double cross = abx * cay - aby * cax;
+    // R = |ab| |bc| |ca| / (2 |cross|)
+    return (abx * abx + aby * aby) * (bcx * bcx + bcy * bcy)
+      * (cax * cax + cay * cay) / (4 * cross * cross);
+  }
+
+  /* Whether the squared length of the edge of e is below the limit */
+  private static boolean isShort(Triangulation t, int e, double limit) {
+    return distance2(t, t.origin[e], t.origin[e ^ 1]) < limit;
+  }
+
+  /*****************************************************************************
+   *                           GRAPHS
+   ****************************************************************************/
+  /**
+   * Creates the graph of the given edges between vertices of t, in the same
+   * format as Delaunay.delaunize().
+   *
+   * @param t the triangulation the vertices belong to
+   * @param edges pairs of vertex ids: edge i connects [2i] and [2i+1]
+   * @return every vertex's Point mapped to a list of the Points it is
+   *         connected to by the edges
+   */
+  public static HashMap<Point, ArrayList<Point>> graph(Triangulation t,
+      int[] edges) {
+    int n = t.n;
+    HashMap<Point, ArrayList<Point>> graph = new HashMap<>(2 * n);
+    ArrayList<ArrayList<Point>> lists = new ArrayList<>(n);
+    Point[] ps = new Point[n];
+    for (int v = 0; v < n; v++) {
+      ps[v] = t.point(v);
+      lists.add(graph.computeIfAbsent(ps[v], p -> new ArrayList<>(2)));
+    }
+    for (int i = 0; i < edges.length; i += 2) {
+      int a = edges[i], b = edges[i + 1];
+      lists.get(a).add(ps[b]);
+      lists.get(b).add(ps[a]);
+    }
+    return graph;
+  }
+}
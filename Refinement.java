@@ -0,0 +1,489 @@
+/*******************************************************************************
+ * Delaunay refinement (Ruppert's algorithm, with Chew's and Shewchuk's
+ * improvements): adds vertices to a (constrained) Delaunay triangulation until
+ * no triangle has an angle below a given minimum or an area above a given
+ * maximum, while adding as few vertices as it can.
+ *
+ * The segments of the triangulation are its constraints and the edges of its
+ * hull. A segment is encroached if a vertex lies inside the circle that has
+ * the segment as its diameter; encroached segments are split in two. Bad
+ * triangles are taken from a priority queue, worst first, and get a vertex at
+ * their circumcentre, unless that vertex would encroach a segment, in which
+ * case the segment is split instead. Every vertex is inserted into the
+ * triangulation directly, which only flips the edges around it, so no
+ * triangulation is ever built again.
+ *
+ * Ruppert proved this terminates for minimum angles up to 20.7 degrees if no
+ * two segments meet at an angle below 60 degrees. In practice it terminates
+ * up to about 33 degrees. Segments with one end at an input vertex are split
+ * on concentric circular shells around that vertex, and triangles whose
+ * smallest angle lies between two segments are left alone (that angle can not
+ * be improved), so small input angles do not make it run forever.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ *  Predicates.java
+ *  Triangulation.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Create a (constrained) triangulation, e.g. with Delaunay.constrained(), and
+ *  call Refinement.refine() on it with the bounds. The whole convex hull is
+ *  meshed. The new vertices are added to the triangulation after the existing
+ *  ones.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.Arrays;
+
+public class Refinement {
+
+  /** The triangulation being refined */
+  private final Triangulation t;
+
+  /**
+   * The square of the largest allowed ratio between the circumradius and the
+   * shortest edge of a triangle, which is 1 / (2 sin(minimum angle))
+   */
+  private final double maxRatio;
+
+  /** The largest allowed area of a triangle */
+  private final double maxArea;
+
+  /** The vertices below this id were there before refinement started */
+  private final int inputs;
+
+  /** The segments still to check for encroachment, two vertices each */
+  private int[] segments = new int[64];
+  private int segmentCount = 0;
+
+  /**
+   * The bad triangles, as a binary heap on how bad they are: their corners
+   * (three at a time) and their squared circumradius to shortest edge ratio
+   */
+  private int[] corners = new int[96];
+  private double[] ratios = new double[32];
+  private int heapSize = 0;
+
+  /**
+   * The end points of the input segment every added vertex lies on, two per
+   * vertex from inputs on, or -1 for vertices that lie on no segment
+   */
+  private int[] ends = new int[64];
+
+  /** Scratch space for encroaches(): the triangles of a cavity */
+  private int[] cavity = new int[16];
+
+  /*****************************************************************************
+   *                           REFINEMENT
+   ****************************************************************************/
+  /**
+   * Refines the triangulation until every triangle has all its angles at
+   * least minAngle (except angles between two segments, which can not be
+   * improved) and an area of at most maxArea.
+   *
+   * @param t the (constrained) delaunay-triangulation to refine
+   * @param minAngle the smallest allowed angle in degrees, at most 34
+   * @param maxArea the largest allowed area of a triangle, or
+   *        Double.POSITIVE_INFINITY for no bound
+   * @return the amount of vertices that were added
+   * @throws IllegalArgumentException if a bound is out of range
+   */
+  public static int refine(Triangulation t, double minAngle, double maxArea) {
+    if (!(minAngle >= 0 && minAngle <= 34)) {
+      throw new IllegalArgumentException("the minimum angle must lie in [0, 34]"
+        + " degrees, not " + minAngle + "!!");
+    }
+    if (!(maxArea > 0)) {
+      throw new IllegalArgumentException("the maximum area must be positive, "
+        + "not " + maxArea + "!!");
+    }
+    return new Refinement(t, minAngle, maxArea).run();
+  }
+
+  private Refinement(Triangulation t, double minAngle, double maxArea) {
+    this.t = t;
+    double ratio = 1 / (2 * Math.sin(Math.toRadians(minAngle)));
+    this.maxRatio = ratio * ratio;
+    this.maxArea = maxArea;
+    this.inputs = t.n;
+  }
+
+  /**
+   * Splits encroached segments until there are none, then refines the worst
+   * triangle, and so on until there are no bad triangles left.
+   */
+  private int run() {
+    if (t.outer == -1 || !t.isTriangle(t.outer ^ 1)) {
+      // no triangles to refine
+      return 0;
+    }
+    for (int e = 0; e < t.top; e += 2) {
+      if (t.origin[e] != -1 && isSegment(e)) {
+        pushSegment(t.origin[e], t.origin[e ^ 1]);
+      }
+    }
+    t.triangleEdges().forEach(this::check);
+    while (segmentCount > 0 || heapSize > 0) {
+      if (segmentCount > 0) {
+        int b = segments[--segmentCount];
+        int a = segments[--segmentCount];
+        int e = t.find(a, b);
+        if (e != -1 && isSegment(e) && isEncroached(e)) {
+          split(e);
+        }
+        continue;
+      }
+      int a = corners[0], b = corners[1], c = corners[2];
+      pop();
+      int e = t.find(a, b);
+      if (e != -1 && t.isTriangle(e) && t.origin[t.prev[e]] == c) {
+        improve(e);
+      }
+    }
+    return t.n - inputs;
+  }
+
+  /**
+   * Inserts a vertex at the circumcentre of the triangle left of e, or, if
+   * that vertex would encroach segments, splits those instead and tries the
+   * triangle again later.
+   */
+  private void improve(int e) {
+    int a = t.origin[e], b = t.origin[e ^ 1], c = t.origin[t.prev[e]];
+    // relative to a, to keep the products small
+    double ax = t.xs[a], ay = t.ys[a];
+    double bx = t.xs[b] - ax, by = t.ys[b] - ay;
+    double cx = t.xs[c] - ax, cy = t.ys[c] - ay;
+    double bb = bx * bx + by * by;
+    double cc = cx * cx + cy * cy;
+    double d = 2 * (bx * cy - by * cx);
+    double x = ax + (cy * bb - by * cc) / d;
+    double y = ay + (bx * cc - cx * bb) / d;
+    int f = t.locate(x, y, a);
+    if (f == -1 || !t.isTriangle(f)) {
+      // rounding put the circumcentre outside the hull
+      return;
+    }
+    int[] encroached = encroaches(f, x, y);
+    if (encroached.length == 0) {
+      int size = t.n;
+      int v = t.insert(x, y, a);
+      if (t.n > size) {
+        setSegment(v, -1, -1);
+        added(v);
+      }
+      return;
+    }
+    boolean split = false;
+    for (int i = 0; i < encroached.length; i += 2) {
+      int s = t.find(encroached[i], encroached[i + 1]);
+      if (s != -1) {
+        split |= split(s);
+      }
+    }
+    e = t.find(a, b);
+    if (split && e != -1 && t.isTriangle(e) && t.origin[t.prev[e]] == c) {
+      check(e);
+    }
+  }
+
+  /**
+   * Finds the segments a vertex at (x, y) would encroach: those on the
+   * boundary of its cavity, the triangles whose circles contain it, found by
+   * moving from the triangle left of f across every edge that is not a
+   * segment. A segment the vertex encroaches but that is not on the boundary
+   * of its cavity would have been encroached by a vertex already.
+   *
+   * @return the end points of the encroached segments, two at a time
+   */
+  private int[] encroaches(int f, double x, double y) {
+    int[] found = new int[0];
+    int size = 0;
+    cavity[size++] = root(f);
+    for (int i = 0; i < size; i++) {
+      int e = cavity[i];
+      for (int k = 0; k < 3; k++, e = t.next[e]) {
+        if (isSegment(e)) {
+          if (isEncroachedBy(e, x, y)) {
+            found = Arrays.copyOf(found, found.length + 2);
+            found[found.length - 2] = t.origin[e];
+            found[found.length - 1] = t.origin[e ^ 1];
+          }
+          continue;
+        }
+        int s = e ^ 1;
+        int root = root(s);
+        boolean seen = false;
+        for (int j = 0; j < size && !seen; j++) {
+          seen = cavity[j] == root;
+        }
+        int p = t.origin[s], q = t.origin[s ^ 1], r = t.origin[t.prev[s]];
+        if (!seen && Predicates.incircle(t.xs[p], t.ys[p], t.xs[q], t.ys[q],
+            t.xs[r], t.ys[r], x, y) > 0) {
+          if (size == cavity.length) {
+            cavity = Arrays.copyOf(cavity, 2 * size);
+          }
+          cavity[size++] = root;
+        }
+      }
+    }
+    return found;
+  }
+
+  /* The smallest of the three half-edges of the triangle left of e */
+  private int root(int e) {
+    return Math.min(e, Math.min(t.next[e], t.prev[e]));
+  }
+
+  /**
+   * Splits the segment of half-edge e, in the middle or, if exactly one of its
+   * ends is an input vertex, at the power of two distance from that vertex
+   * closest to the middle.
+   *
+   * @return false if the segment is too short to be split
+   */
+  private boolean split(int e) {
+    int a = t.origin[e], b = t.origin[e ^ 1];
+    double ax = t.xs[a], ay = t.ys[a], bx = t.xs[b], by = t.ys[b];
+    double s = 0.5;
+    if ((a < inputs) != (b < inputs)) {
+      // concentric shells around the input vertex
+      double length = Math.hypot(bx - ax, by - ay);
+      double shell = Math.scalb(1.0, Math.getExponent(length / 2));
+      if (shell < length / 3) {
+        shell *= 2;
+      }
+      s = (a < inputs) ? shell / length : 1 - shell / length;
+    }
+    double x = ax + s * (bx - ax);
+    double y = ay + s * (by - ay);
+    if ((x == ax && y == ay) || (x == bx && y == by)) {
+      return false;
+    }
+    int v = t.insertOnEdge(x, y, e);
+    setSegment(v, a, b);
+    added(v);
+    return true;
+  }
+
+  /**
+   * Remembers that the added vertex v lies on the input segment that the
+   * segment from a to b is a part of, or on no segment if a is -1.
+   */
+  private void setSegment(int v, int a, int b) {
+    int i = 2 * (v - inputs);
+    if (i + 2 > ends.length) {
+      ends = Arrays.copyOf(ends, 2 * (i + 2));
+    }
+    ends[i] = ends[i + 1] = -1;
+    if (a == -1) {
+      return;
+    }
+    // an end that was added itself knows the input segment
+    int u = (a >= inputs && ends[2 * (a - inputs)] != -1) ? a
+      : (b >= inputs && ends[2 * (b - inputs)] != -1) ? b : -1;
+    ends[i] = (u == -1) ? a : ends[2 * (u - inputs)];
+    ends[i + 1] = (u == -1) ? b : ends[2 * (u - inputs) + 1];
+  }
+
+  /**
+   * Remembers every segment around the new vertex v to check whether it is
+   * encroached, and every triangle around v to check whether it is bad.
+   */
+  private void added(int v) {
+    int first = t.incident[v];
+    int e = first;
+    do {
+      if (isSegment(e)) {
+        pushSegment(v, t.origin[e ^ 1]);
+      }
+      if (t.isTriangle(e)) {
+        int across = t.next[e];
+        if (isSegment(across)) {
+          pushSegment(t.origin[across], t.origin[across ^ 1]);
+        }
+        check(e);
+      }
+      e = t.onext(e);
+    } while (e != first);
+  }
+
+  /*****************************************************************************
+   *                           TESTS
+   ****************************************************************************/
+  /** @return true if the edge of e is a constraint or lies on the hull */
+  private boolean isSegment(int e) {
+    return t.constrained[e >> 1] || !t.isTriangle(e) || !t.isTriangle(e ^ 1);
+  }
+
+  /**
+   * Checks whether the segment of e is encroached by a vertex. Only the
+   * vertices across from it in the triangles on either side have to be
+   * checked: if any vertex lies inside its diametral circle, so do they.
+   */
+  private boolean isEncroached(int e) {
+    for (int s : new int[]{e, e ^ 1}) {
+      if (t.isTriangle(s)) {
+        int c = t.origin[t.prev[s]];
+        if (isEncroachedBy(s, t.xs[c], t.ys[c])) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /* Whether (x, y) lies strictly inside the diametral circle of e */
+  private boolean isEncroachedBy(int e, double x, double y) {
+    int a = t.origin[e], b = t.origin[e ^ 1];
+    return (t.xs[a] - x) * (t.xs[b] - x) + (t.ys[a] - y) * (t.ys[b] - y) < 0;
+  }
+
+  /**
+   * Checks whether the triangle left of e is bad, and if so, remembers it:
+   * its circumradius is too large compared to its shortest edge (its
+   * smallest angle is too small), or its area is too large. A small angle is
+   * allowed if it lies between two segments, or if its shortest edge joins
+   * two segments that meet at a small input angle, at the same distance from
+   * where they meet: splitting it would only start a cascade of ever smaller
+   * triangles into that angle.
+   */
+  private void check(int e) {
+    int f = t.next[e];
+    int g = t.next[f];
+    int a = t.origin[e], b = t.origin[f], c = t.origin[g];
+    double abx = t.xs[b] - t.xs[a], aby = t.ys[b] - t.ys[a];
+    double bcx = t.xs[c] - t.xs[b], bcy = t.ys[c] - t.ys[b];
+    double cax = t.xs[a] - t.xs[c], cay = t.ys[a] - t.ys[c];
+    double ab = abx * abx + aby * aby;
+    double bc = bcx * bcx + bcy * bcy;
+    double ca = cax * cax + cay * cay;
+    double cross = abx * cay - aby * cax;
+    double area = Math.abs(cross) / 2;
+    // R = |ab| |bc| |ca| / (4 area), so R^2 = ab bc ca / (4 cross^2)
+    double shortest = Math.min(ab, Math.min(bc, ca));
+    double ratio = ab * bc * ca / (4 * cross * cross) / shortest;
+    boolean skinny = ratio > maxRatio;
+    if (skinny) {
+      // the smallest angle is across from the shortest edge
+      int before = (shortest == ab) ? f : (shortest == bc) ? g : e;
+      int after = (shortest == ab) ? g : (shortest == bc) ? e : f;
+      int u = (shortest == ab) ? a : (shortest == bc) ? b : c;
+      int w = (shortest == ab) ? b : (shortest == bc) ? c : a;
+      skinny = !(isSegment(before) && isSegment(after)) && !isOnShell(u, w);
+    }
+    if (skinny || area > maxArea) {
+      push(a, b, c, ratio);
+    }
+  }
+
+  /**
+   * Checks whether the added vertices u and w lie on different input segments
+   * with a common end, at (nearly) the same distance from it.
+   */
+  private boolean isOnShell(int u, int w) {
+    if (u < inputs || w < inputs) {
+      return false;
+    }
+    int i = 2 * (u - inputs), j = 2 * (w - inputs);
+    int p = ends[i], q = ends[i + 1], r = ends[j], s = ends[j + 1];
+    if (p == -1 || r == -1 || (p == r && q == s) || (p == s && q == r)) {
+      return false;
+    }
+    int common = (p == r || p == s) ? p : (q == r || q == s) ? q : -1;
+    if (common == -1) {
+      return false;
+    }
+    double ux = t.xs[u] - t.xs[common], uy = t.ys[u] - t.ys[common];
+    double wx = t.xs[w] - t.xs[common], wy = t.ys[w] - t.ys[common];
+    double du = ux * ux + uy * uy, dw = wx * wx + wy * wy;
+    return du <= 1.002 * dw && dw <= 1.002 * du;
+  }
+
+  /*****************************************************************************
+   *                           QUEUES
+   ****************************************************************************/
+  /* Remembers the segment from a to b to check for encroachment */
+  private void pushSegment(int a, int b) {
+    if (segmentCount + 2 > segments.length) {
+      segments = Arrays.copyOf(segments, 2 * segments.length);
+    }
+    segments[segmentCount++] = a;
+    segments[segmentCount++] = b;
+  }
+
+  /* Adds a triangle to the heap */
+  private void push(int a, int b, int c, double ratio) {
+    if (heapSize == ratios.length) {
+      ratios = Arrays.copyOf(ratios, 2 * heapSize);
+      corners = Arrays.copyOf(corners, 6 * heapSize);
+    }
+    int i = heapSize++;
+    while (i > 0 && ratios[(i - 1) / 2] < ratio) {
+      move((i - 1) / 2, i);
+      i = (i - 1) / 2;
+    }
+    ratios[i] = ratio;
+    corners[3 * i] = a;
+    corners[3 * i + 1] = b;
+    corners[3 * i + 2] = c;
+  }
+
+  /* Removes the worst triangle from the heap */
+  private void pop() {
+    heapSize--;
+    double ratio = ratios[heapSize];
+    int a = corners[3 * heapSize];
+    int b = corners[3 * heapSize + 1];
+    int c = corners[3 * heapSize + 2];
+    int i = 0;
+    while (2 * i + 1 < heapSize) {
+      int child = 2 * i + 1;
+      if (child + 1 < heapSize && ratios[child + 1] > ratios[child]) {
+        child++;
+      }
+      if (ratios[child] <= ratio) {
+        break;
+      }
+      move(child, i);
+      i = child;
+    }
+    ratios[i] = ratio;
+    corners[3 * i] = a;
+    corners[3 * i + 1] = b;
+    corners[3 * i + 2] = c;
+  }
+
+  /* Copies heap entry i to position j */
+  private void move(int i, int j) {
+    ratios[j] = ratios[i];
+    System.arraycopy(corners, 3 * i, corners, 3 * j, 3);
+  }
+}
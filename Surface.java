@@ -0,0 +1,395 @@
+/*******************************************************************************
+ * A triangulated irregular network (TIN): a Delaunay triangulation of points
+ * with a height (z) each, which is interpolated at any (x, y) inside it.
+ *
+ * Every query walks to the triangle that contains it from the triangle of the
+ * query before it (see Triangulation.locateFrom()), so queries that follow
+ * each other in space, such as the cells of a grid row by row, take only a few
+ * steps each. The height is interpolated either linearly over that triangle
+ * (barycentric coordinates), or with Sibson's natural neighbour interpolation,
+ * which is smooth across the edges of the triangles: every neighbour of the
+ * query point in the Delaunay triangulation with the point inserted is
+ * weighted by the area the point's Voronoi cell would take from theirs. That
+ * area is computed from the circumcentres of the triangles whose circles
+ * contain the point, without inserting it.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ *  PointBuffer.java
+ *  Predicates.java
+ *  Triangulation.java
+ *  Delaunay.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Create an arraylist of Points with heights (z) and call Surface.of() with
+ *  it, or pass a PointBuffer with z coordinates. Then call linear(x, y) or
+ *  natural(x, y) to get the height at (x, y), or pass a whole PointBuffer of
+ *  queries to interpolate them on parallel threads. Queries outside of the
+ *  convex hull of the points get NaN.
+ *  Every thread that queries a Surface gets its own record of where its last
+ *  query was, so a Surface may be queried from many threads at once.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class Surface {
+
+  /** The triangulation of the points */
+  private final Triangulation t;
+
+  /** The height of every vertex */
+  private final double[] zs;
+
+  /** Where the last query on each thread was, and its scratch space */
+  private final ThreadLocal<Query> last = ThreadLocal.withInitial(Query::new);
+
+  /** The amount of queries every thread takes at a time in a batch */
+  public static final int CHUNK = 1 << 12;
+
+  /*****************************************************************************
+   *                           CONSTRUCTORS
+   ****************************************************************************/
+  /**
+   * Creates the surface through all of the given points.
+   *
+   * @param all the list of all Points on some map, with their heights as z
+   * @return the surface, where vertex i is the point at index i in all
+   */
+  public static Surface of(ArrayList<Point> all) {
+    double[] zs = new double[all.size()];
+    for (int i = 0; i < zs.length; i++) {
+      zs[i] = all.get(i).z;
+    }
+    return new Surface(Delaunay.triangulation(all), zs);
+  }
+
+  /**
+   * Creates the surface through the points in the given buffer.
+   *
+   * @param ps the points on some map, with their heights as z coordinates
+   * @return the surface, where vertex i is point i of ps
+   */
+  public static Surface of(PointBuffer ps) {
+    if (!ps.hasZ()) {
+      throw new IllegalArgumentException("the points have no z "
+        + "coordinates!!");
+    }
+    return new Surface(Delaunay.triangulation(ps), ps.zs());
+  }
+
+  /**
+   * Creates the surface over the given delaunay-triangulation.
+   *
+   * @param t the delaunay-triangulation of the points
+   * @param zs the height of every vertex of t
+   */
+  public Surface(Triangulation t, double[] zs) {
+    if (zs.length != t.size()) {
+      throw new IllegalArgumentException("expected " + t.size()
+        + " heights, got " + zs.length + "!!");
+    }
+    this.t = t;
+    this.zs = zs;
+  }
+
+  /** @return the triangulation of the points */
+  public Triangulation triangulation() {
+    return t;
+  }
+
+  /** @return the height of vertex v */
+  public double z(int v) {
+    return zs[v];
+  }
+
+  /*****************************************************************************
+   *                           QUERIES
+   ****************************************************************************/
+  /**
+   * Interpolates the height at (x, y) linearly over the triangle that
+   * contains it.
+   *
+   * @return the height, or NaN if (x, y) lies outside of the convex hull
+   */
+  public double linear(double x, double y) {
+    return linear(x, y, last.get());
+  }
+
+  /**
+   * Interpolates the height at (x, y) with Sibson's natural neighbour
+   * interpolation. Points on the hull are interpolated linearly along it.
+   *
+   * @return the height, or NaN if (x, y) lies outside of the convex hull
+   */
+  public double natural(double x, double y) {
+    return natural(x, y, last.get());
+  }
+
+  /**
+   * Interpolates the height at every point in the given buffer linearly, see
+   * linear(), on parallel threads. Every thread walks through a chunk of
+   * consecutive queries, so queries that lie close to the ones before them
+   * are found quickly.
+   *
+   * @param queries the points to interpolate at
+   * @return the height at every point in queries
+   */
+  public double[] linear(PointBuffer queries) {
+    return batch(queries, false);
+  }
+
+  /**
+   * Same as the above, but with natural neighbour interpolation, see
+   * natural().
+   */
+  public double[] natural(PointBuffer queries) {
+    return batch(queries, true);
+  }
+
+  /* Splits the queries into chunks that are interpolated in parallel */
+  private double[] batch(PointBuffer queries, boolean natural) {
+    double[] heights = new double[queries.size()];
+    int chunks = (heights.length + CHUNK - 1) / CHUNK;
+    IntStream.range(0, chunks).parallel().forEach(chunk -> {
+      Query query = new Query();
+      int end = Math.min(heights.length, (chunk + 1) * CHUNK);
+      for (int i = chunk * CHUNK; i < end; i++) {
+        double x = queries.x(i), y = queries.y(i);
+        heights[i] = natural ? natural(x, y, query) : linear(x, y, query);
+      }
+    });
+    return heights;
+  }
+
+  /**
+   * Where the last query was, so the next walk starts there, and scratch space
+   * for natural(). Every thread needs its own.
+   */
+  private static class Query {
+    int hint = -1;
+    int[] cavity = new int[16];
+    int[] boundary = new int[16];
+    double[] cx = new double[16];
+    double[] cy = new double[16];
+  }
+
+  /**
+   * Finds the triangle that contains (x, y), starting at the one of the last
+   * query.
+   *
+   * @return a half-edge with that triangle on its left, or -1 if there is none
+   */
+  private int locate(double x, double y, Query query) {
+    int e = t.locateFrom(x, y, query.hint);
+    if (e == -1 || !t.isTriangle(e)) {
+      return -1;
+    }
+    query.hint = e;
+    return e;
+  }
+
+  /* Interpolates linearly, see linear() */
+  private double linear(double x, double y, Query query) {
+    int e = locate(x, y, query);
+    return (e == -1) ? Double.NaN : linear(x, y, e);
+  }
+
+  /**
+   * Interpolates linearly over the triangle left of e with barycentric
+   * coordinates: the weight of every corner is the area of the triangle that
+   * (x, y) forms with the other two. The corners are taken from the smallest
+   * half-edge, so the result is the same however the triangle was reached.
+   */
+  private double linear(double x, double y, int e) {
+    e = root(e);
+    int a = t.origin[e], b = t.origin[t.next[e]], c = t.origin[t.prev[e]];
+    double ax = t.xs[a] - x, ay = t.ys[a] - y;
+    double bx = t.xs[b] - x, by = t.ys[b] - y;
+    double cx = t.xs[c] - x, cy = t.ys[c] - y;
+    double wa = bx * cy - by * cx;
+    double wb = cx * ay - cy * ax;
+    double wc = ax * by - ay * bx;
+    return (wa * zs[a] + wb * zs[b] + wc * zs[c]) / (wa + wb + wc);
+  }
+
+  /**
+   * Interpolates with natural neighbours, see natural(). The cavity of (x, y)
+   * is made up of the triangles whose circles contain it; inserting (x, y)
+   * would connect it to every vertex on the boundary of the cavity. The area
+   * its Voronoi cell takes from the cell of such a neighbour v is bounded by
+   * the circumcentres of the two new triangles at v and those of the cavity
+   * triangles around v.
+   */
+  private double natural(double x, double y, Query query) {
+    int e = locate(x, y, query);
+    if (e == -1) {
+      return Double.NaN;
+    }
+    int f = e;
+    for (int k = 0; k < 3; k++, f = t.next[f]) {
+      int a = t.origin[f], b = t.origin[f ^ 1];
+      if (t.xs[a] == x && t.ys[a] == y) {
+        return zs[a];
+      }
+      if (!t.isTriangle(f ^ 1) && Predicates.orient2d(t.xs[a], t.ys[a],
+          t.xs[b], t.ys[b], x, y) == 0) {
+        // on the hull the cell of (x, y) would be unbounded
+        return linear(x, y, e);
+      }
+    }
+    int size = cavity(x, y, e, query);
+    int[] boundary = query.boundary;
+    if (query.cx.length < size) {
+      query.cx = new double[2 * size];
+      query.cy = new double[query.cx.length];
+    }
+    // the circumcentres of the new triangles, relative to (x, y)
+    for (int i = 0; i < size; i++) {
+      int a = t.origin[boundary[i]], b = t.origin[boundary[i] ^ 1];
+      double ax = t.xs[a] - x, ay = t.ys[a] - y;
+      double bx = t.xs[b] - x, by = t.ys[b] - y;
+      double aa = ax * ax + ay * ay, bb = bx * bx + by * by;
+      double d = 2 * (ax * by - ay * bx);
+      query.cx[i] = (by * aa - ay * bb) / d;
+      query.cy[i] = (ax * bb - bx * aa) / d;
+    }
+    double total = 0, sum = 0;
+    for (int i = 0; i < size; i++) {
+      int h = boundary[i];
+      int v = t.origin[h];
+      int j = (i == 0) ? size - 1 : i - 1;
+      int before = t.origin[boundary[j]];
+      // the polygon from the new circumcentre before v to the one after it,
+      // then back over the circumcentres of the cavity triangles around v
+      double px = query.cx[j], py = query.cy[j];
+      double qx = query.cx[i], qy = query.cy[i];
+      double area = px * qy - py * qx;
+      for (int g = h; t.origin[g ^ 1] != before; g = t.onext(g)) {
+        double rx = circumcentreX(g, x, y), ry = circumcentreY(g, x, y);
+        area += qx * ry - qy * rx;
+        qx = rx;
+        qy = ry;
+      }
+      area += qx * py - qy * px;
+      area = Math.abs(area);
+      total += area;
+      sum += area * zs[v];
+    }
+    return sum / total;
+  }
+
+  /**
+   * Collects the cavity of (x, y), starting from the triangle left of e that
+   * contains it, and puts the half-edges on its boundary into
+   * query.boundary in counter-clockwise order, each with the cavity on its
+   * left.
+   *
+   * @return the amount of half-edges on the boundary
+   */
+  private int cavity(double x, double y, int e, Query query) {
+    int[] cavity = query.cavity;
+    int triangles = 0;
+    cavity[triangles++] = root(e);
+    int edges = 0;
+    for (int i = 0; i < triangles; i++) {
+      int h = cavity[i];
+      for (int k = 0; k < 3; k++, h = t.next[h]) {
+        int s = h ^ 1;
+        boolean inside = false;
+        if (t.isTriangle(s)) {
+          int root = root(s);
+          for (int j = 0; j < triangles && !inside; j++) {
+            inside = cavity[j] == root;
+          }
+          if (!inside) {
+            int a = t.origin[s], b = t.origin[s ^ 1], c = t.origin[t.prev[s]];
+            inside = Predicates.incircle(t.xs[a], t.ys[a], t.xs[b], t.ys[b],
+              t.xs[c], t.ys[c], x, y) > 0;
+            if (inside) {
+              if (triangles == cavity.length) {
+                cavity = query.cavity = Arrays.copyOf(cavity, 2 * triangles);
+              }
+              cavity[triangles++] = root;
+            }
+          }
+        }
+        if (!inside) {
+          if (edges == query.boundary.length) {
+            query.boundary = Arrays.copyOf(query.boundary, 2 * edges);
+          }
+          query.boundary[edges++] = h;
+        }
+      }
+    }
+    // every neighbour is tested the moment its first side is, so the edges
+    // collected are exactly the boundary; put them in order
+    int[] boundary = query.boundary;
+    for (int i = 0; i + 1 < edges; i++) {
+      int end = t.origin[boundary[i] ^ 1];
+      for (int j = i + 1; j < edges; j++) {
+        if (t.origin[boundary[j]] == end) {
+          int swap = boundary[i + 1];
+          boundary[i + 1] = boundary[j];
+          boundary[j] = swap;
+          break;
+        }
+      }
+    }
+    return edges;
+  }
+
+  /* The smallest of the three half-edges of the triangle left of e */
+  private int root(int e) {
+    return Math.min(e, Math.min(t.next[e], t.prev[e]));
+  }
+
+  /* The x coordinate of the circumcentre of the triangle left of e, minus x */
+  private double circumcentreX(int e, double x, double y) {
+    int a = t.origin[e], b = t.origin[t.next[e]], c = t.origin[t.prev[e]];
+    double ax = t.xs[a] - x, ay = t.ys[a] - y;
+    double bx = t.xs[b] - ax - x, by = t.ys[b] - ay - y;
+    double cx = t.xs[c] - ax - x, cy = t.ys[c] - ay - y;
+    double bb = bx * bx + by * by, cc = cx * cx + cy * cy;
+    return ax + (cy * bb - by * cc) / (2 * (bx * cy - by * cx));
+  }
+
+  /* The y coordinate of the circumcentre of the triangle left of e, minus y */
+  private double circumcentreY(int e, double x, double y) {
+    int a = t.origin[e], b = t.origin[t.next[e]], c = t.origin[t.prev[e]];
+    double ax = t.xs[a] - x, ay = t.ys[a] - y;
+    double bx = t.xs[b] - ax - x, by = t.ys[b] - ay - y;
+    double cx = t.xs[c] - ax - x, cy = t.ys[c] - ay - y;
+    double bb = bx * bx + by * by, cc = cx * cx + cy * cy;
+    return ay + (bx * cc - cx * bb) / (2 * (bx * cy - by * cx));
+  }
+}
@@ -0,0 +1,686 @@
+/*******************************************************************************
+ * The Delaunay tetrahedralization of a collection of points in 3D: the
+ * tetrahedra whose circumscribed spheres hold none of the points inside them.
+ * It is built with the Bowyer-Watson algorithm. Every point is located by
+ * walking from tetrahedron to tetrahedron towards it, starting where the
+ * previous point was inserted. The tetrahedra whose spheres contain the point
+ * (the cavity) are then removed and the point is connected to every face on
+ * the boundary of the hole left behind. The points are inserted in a biased
+ * randomized order along a Z-order curve, so the walks stay short.
+ *
+ * Like Triangulation, everything is stored in primitive arrays. The
+ * tetrahedron t has the corners corners[4t] to corners[4t+3], ordered so that
+ * Predicates.orient3d() is positive for them, and adjacent[4t+i] holds 4u+j,
+ * where u is the tetrahedron across the face opposite corner i and j is the
+ * corner of u opposite that same face.
+ * The outside of the hull is covered by ghost tetrahedra: one per hull face,
+ * with the point at infinity (INFINITE) as their fourth corner. They make
+ * points outside the hull no different from points inside it, and they are
+ * left out of tetrahedra().
+ *
+ * All decisions are made with the exact predicates of Predicates.java, so
+ * degenerate input (coplanar or cospherical points) is handled correctly. If
+ * all points lie on one plane there are no tetrahedra at all.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ *  PointBuffer.java
+ *  Predicates.java
+ *  Delaunay.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Create an arraylist of Points (with z coordinates) and call
+ *  Tetrahedralization.of() with it. tetrahedra() then gives the corners of
+ *  every tetrahedron as indices into the arraylist, four at a time.
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+public class Tetrahedralization {
+
+  /** The corner of every ghost tetrahedron that stands for infinity */
+  public static final int INFINITE = -1;
+
+  /** Marks the first corner of a tetrahedron that is free for reuse */
+  private static final int FREE = -2;
+
+  /**
+   * The x, y and z coordinates of every vertex. Internally the vertices are
+   * numbered in insertion order, so that vertices that are close in space are
+   * close in memory as well.
+   */
+  double[] xs;
+  double[] ys;
+  double[] zs;
+
+  /** The amount of vertices */
+  int n;
+
+  /** The id each internal vertex was given, and the other way around */
+  private int[] ids;
+  private int[] index;
+
+  /** The corners of every tetrahedron, four at a time */
+  int[] corners;
+
+  /** The tetrahedron and corner across each face, see the top of the file */
+  int[] adjacent;
+
+  /** The amount of tetrahedra that have been handed out */
+  int top = 0;
+
+  /** The first free tetrahedron (chained through adjacent[]), or -1 */
+  private int free = -1;
+
+  /** The amount of tetrahedra in use, ghosts included */
+  private int count = 0;
+
+  /** A tetrahedron around the last inserted vertex, where walks start */
+  private int last = -1;
+
+  /** The state of the random number generator used by walk() */
+  private int seed = 0x2545F491;
+
+  /** Scratch space for insert(): the cavity and the faces around it */
+  private int[] cavity = new int[64];
+  private int[] boundary = new int[64];
+
+  /** Which insertion last looked at every tetrahedron, and what it found */
+  private int[] visited = new int[0];
+  private int stamp = 0;
+
+  /** Scratch hash table for insert(), from an edge to a face along it */
+  private long[] edgeKeys = new long[256];
+  private int[] edgeFaces = new int[256];
+
+  /*****************************************************************************
+   *                           CONSTRUCTORS
+   ****************************************************************************/
+  /**
+   * Creates the delaunay-tetrahedralization of all of the given points.
+   *
+   * @param all the list of all Points in some space
+   * @return the tetrahedralization, where vertex i is the point at index i in
+   *         all. Points that share their coordinates with another point in
+   *         the list are not part of any tetrahedron.
+   */
+  public static Tetrahedralization of(ArrayList<Point> all) {
+    int n = all.size();
+    double[] xs = new double[n];
+    double[] ys = new double[n];
+    double[] zs = new double[n];
+    for (int i = 0; i < n; i++) {
+      Point p = all.get(i);
+      xs[i] = p.x;
+      ys[i] = p.y;
+      zs[i] = p.z;
+    }
+    return new Tetrahedralization(xs, ys, zs);
+  }
+
+  /**
+   * Same as the above, but with the points in the given buffer.
+   *
+   * @param ps the points in some space, with z coordinates
+   * @return the tetrahedralization, where vertex i is point i of ps
+   */
+  public static Tetrahedralization of(PointBuffer ps) {
+    if (!ps.hasZ()) {
+      throw new IllegalArgumentException("the points have no z "
+        + "coordinates!!");
+    }
+    return new Tetrahedralization(ps.xs(), ps.ys(), ps.zs());
+  }
+
+  /**
+   * Creates the delaunay-tetrahedralization of the given coordinates.
+   *
+   * @param xs,ys,zs the x, y and z coordinates of the vertices
+   */
+  public Tetrahedralization(double[] xs, double[] ys, double[] zs) {
+    n = xs.length;
+    if (ys.length != n || zs.length != n) {
+      throw new IllegalArgumentException("xs, ys and zs differ in length ("
+        + n + ", " + ys.length + ", " + zs.length + ")!!");
+    }
+    ids = brio(xs, ys, zs, new Random(0x5DEECE66DL));
+    index = new int[n];
+    this.xs = new double[n];
+    this.ys = new double[n];
+    this.zs = new double[n];
+    for (int i = 0; i < n; i++) {
+      int v = ids[i];
+      index[v] = i;
+      this.xs[i] = xs[v];
+      this.ys[i] = ys[v];
+      this.zs[i] = zs[v];
+    }
+    // a delaunay-tetrahedralization has about 6.5 tetrahedra per vertex
+    int room = 8 * Math.max(n, 4);
+    corners = new int[4 * room];
+    adjacent = new int[4 * room];
+    visited = new int[room];
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    int start = first(order);
+    if (start == -1) {
+      // all vertices lie on one plane
+      return;
+    }
+    for (int i = start; i < n; i++) {
+      insert(order[i]);
+    }
+  }
+
+  /**
+   * Finds four vertices that do not lie on one plane, moves them to the front
+   * of the order and creates their tetrahedron and its four ghosts.
+   *
+   * @return where the rest of the order starts, or -1 if there are no four
+   *         such vertices
+   */
+  private int first(int[] order) {
+    if (n < 4) {
+      return -1;
+    }
+    int a = order[0];
+    int found = 1;
+    for (int i = 1; i < n && found < 4; i++) {
+      int v = order[i];
+      boolean fits;
+      if (found == 1) {
+        fits = xs[v] != xs[a] || ys[v] != ys[a] || zs[v] != zs[a];
+      } else if (found == 2) {
+        fits = !colinear(a, order[1], v);
+      } else {
+        fits = orient(a, order[1], order[2], v) != 0;
+      }
+      if (fits) {
+        order[i] = order[found];
+        order[found++] = v;
+      }
+    }
+    if (found < 4) {
+      return -1;
+    }
+    int b = order[1], c = order[2], d = order[3];
+    if (orient(a, b, c, d) < 0) {
+      int swap = a;
+      a = b;
+      b = swap;
+    }
+    int t = allocate(a, b, c, d);
+    // each ghost has infinity where t has the corner across from its face,
+    // and two other corners swapped since infinity lies on the other side
+    int[] ghost = new int[4];
+    for (int i = 0; i < 4; i++) {
+      int g = allocate(a, b, c, d);
+      corners[4 * g + i] = INFINITE;
+      int j = 4 * g + ((i + 1) & 3), k = 4 * g + ((i + 2) & 3);
+      int swap = corners[j];
+      corners[j] = corners[k];
+      corners[k] = swap;
+      link(4 * t + i, 4 * g + i);
+      ghost[i] = g;
+    }
+    // glue the ghosts to each other along the edges of the hull
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        if (i != j) {
+          glue(ghost[i], ghost[j]);
+        }
+      }
+    }
+    last = t;
+    return 4;
+  }
+
+  /* Checks whether vertices a, b and c lie on one line */
+  private boolean colinear(int a, int b, int c) {
+    return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) == 0
+      && Predicates.orient2d(ys[a], zs[a], ys[b], zs[b], ys[c], zs[c]) == 0
+      && Predicates.orient2d(xs[a], zs[a], xs[b], zs[b], xs[c], zs[c]) == 0;
+  }
+
+  /**
+   * Links the faces of tetrahedra s and t that have the same three corners,
+   * if they have.
+   */
+  private void glue(int s, int t) {
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        if (sameFace(s, i, t, j)) {
+          link(4 * s + i, 4 * t + j);
+        }
+      }
+    }
+  }
+
+  /* Whether the face of s opposite corner i is the face of t opposite j */
+  private boolean sameFace(int s, int i, int t, int j) {
+    int matches = 0;
+    for (int k = 0; k < 4; k++) {
+      for (int l = 0; l < 4; l++) {
+        if (k != i && l != j && corners[4 * s + k] == corners[4 * t + l]) {
+          matches++;
+        }
+      }
+    }
+    return matches == 3;
+  }
+
+  /*****************************************************************************
+   *                           ORDER
+   ****************************************************************************/
+  /**
+   * Orders the vertices with a biased randomized insertion order, like
+   * Delaunay.brio(), but sorts every round along the Z-order curve through a
+   * 2^21 by 2^21 by 2^21 grid.
+   *
+   * @param xs,ys,zs the coordinates of the vertices
+   * @param random the source of the shuffle
+   * @return the ids of all vertices in insertion order
+   */
+  static int[] brio(double[] xs, double[] ys, double[] zs, Random random) {
+    int n = xs.length;
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    for (int i = n - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = order[i];
+      order[i] = order[j];
+      order[j] = swap;
+    }
+    double[] min = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+      Double.POSITIVE_INFINITY};
+    double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+      Double.NEGATIVE_INFINITY};
+    double[][] coords = {xs, ys, zs};
+    for (int k = 0; k < 3; k++) {
+      for (int i = 0; i < n; i++) {
+        min[k] = Math.min(min[k], coords[k][i]);
+        max[k] = Math.max(max[k], coords[k][i]);
+      }
+    }
+    long[] keys = new long[n];
+    for (int k = 0; k < 3; k++) {
+      double scale = (max[k] > min[k]) ? 0x1FFFFF / (max[k] - min[k]) : 0;
+      for (int i = 0; i < n; i++) {
+        int cell = (int)((coords[k][order[i]] - min[k]) * scale);
+        keys[i] |= spread(cell) << k;
+      }
+    }
+    Delaunay.Radix radix = new Delaunay.Radix(keys, order, null);
+    for (int hi = n; hi > 0; hi >>= 1) {
+      radix.sort(hi >> 1, hi, 63);
+    }
+    return radix.ids;
+  }
+
+  /* Spreads the lowest 21 bits of x out to every third bit */
+  private static long spread(int x) {
+    long v = x & 0x1FFFFFL;
+    v = (v | v << 32) & 0x1F00000000FFFFL;
+    v = (v | v << 16) & 0x1F0000FF0000FFL;
+    v = (v | v << 8) & 0x100F00F00F00F00FL;
+    v = (v | v << 4) & 0x10C30C30C30C30C3L;
+    v = (v | v << 2) & 0x1249249249249249L;
+    return v;
+  }
+
+  /*****************************************************************************
+   *                           TETRAHEDRA
+   ****************************************************************************/
+  /* Creates a tetrahedron with the given corners, in a free slot if any */
+  private int allocate(int a, int b, int c, int d) {
+    int t;
+    if (free != -1) {
+      t = free;
+      free = adjacent[4 * free];
+    } else {
+      if (4 * (top + 1) > corners.length) {
+        grow();
+      }
+      t = top++;
+    }
+    corners[4 * t] = a;
+    corners[4 * t + 1] = b;
+    corners[4 * t + 2] = c;
+    corners[4 * t + 3] = d;
+    count++;
+    return t;
+  }
+
+  /* Hands tetrahedron t back for reuse */
+  private void release(int t) {
+    corners[4 * t] = FREE;
+    adjacent[4 * t] = free;
+    free = t;
+    count--;
+  }
+
+  /* Doubles the room for tetrahedra */
+  private void grow() {
+    corners = Arrays.copyOf(corners, 2 * corners.length);
+    adjacent = Arrays.copyOf(adjacent, 2 * adjacent.length);
+    visited = Arrays.copyOf(visited, corners.length / 4);
+  }
+
+  /* Makes the faces f and g (each 4 * tetrahedron + corner) each other's */
+  private void link(int f, int g) {
+    adjacent[f] = g;
+    adjacent[g] = f;
+  }
+
+  /* The corner of t that is INFINITE, or -1 if t is not a ghost */
+  private int infinite(int t) {
+    for (int i = 0; i < 4; i++) {
+      if (corners[4 * t + i] == INFINITE) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /*****************************************************************************
+   *                           GEOMETRY
+   ****************************************************************************/
+  /**
+   * The corners of the face opposite each corner, in an order that keeps the
+   * orientation of the tetrahedron when the corner itself is put after them.
+   */
+  private static final int[][] FACE = {{3, 2, 1}, {2, 3, 0}, {1, 0, 3}, {0, 1, 2}};
+
+  /* orient3d of the vertices a, b, c and d */
+  private int orient(int a, int b, int c, int d) {
+    return Predicates.orient3d(xs[a], ys[a], zs[a], xs[b], ys[b], zs[b],
+      xs[c], ys[c], zs[c], xs[d], ys[d], zs[d]);
+  }
+
+  /**
+   * orient3d of tetrahedron t with corner i moved to the point (x, y, z):
+   * negative if the point lies on the other side of the face opposite corner
+   * i than the corner itself. The other corners have to be finite.
+   */
+  private int side(int t, int i, double x, double y, double z) {
+    int a = corners[4 * t + FACE[i][0]];
+    int b = corners[4 * t + FACE[i][1]];
+    int c = corners[4 * t + FACE[i][2]];
+    return Predicates.orient3d(xs[a], ys[a], zs[a], xs[b], ys[b], zs[b],
+      xs[c], ys[c], zs[c], x, y, z);
+  }
+
+  /**
+   * Checks whether the point (x, y, z) lies inside the sphere of tetrahedron
+   * t, which makes t part of the cavity of the point. For a ghost, the sphere
+   * is the half-space beyond its hull face: the point has to lie strictly
+   * outside the hull face, or on its plane and inside the sphere of the
+   * tetrahedron behind it (which holds exactly the points of the plane that
+   * lie inside the circle through the face).
+   */
+  private boolean conflicts(int t, double x, double y, double z) {
+    int i = infinite(t);
+    if (i == -1) {
+      int a = corners[4 * t], b = corners[4 * t + 1];
+      int c = corners[4 * t + 2], d = corners[4 * t + 3];
+      return Predicates.insphere(xs[a], ys[a], zs[a], xs[b], ys[b], zs[b],
+        xs[c], ys[c], zs[c], xs[d], ys[d], zs[d], x, y, z) > 0;
+    }
+    // the point counts as infinity: on its side of the face if positive
+    int side = side(t, i, x, y, z);
+    if (side != 0) {
+      return side > 0;
+    }
+    return conflicts(adjacent[4 * t + i] >> 2, x, y, z);
+  }
+
+  /*****************************************************************************
+   *                           INSERTION
+   ****************************************************************************/
+  /**
+   * Finds the tetrahedron that contains the point (x, y, z) by walking
+   * towards it: from a finite tetrahedron the walk crosses any face that has
+   * the point strictly on its other side, trying the faces from a random one
+   * onwards so that it can not go around in circles.
+   *
+   * @param t the finite tetrahedron to start from
+   * @return a finite tetrahedron that contains the point (possibly on its
+   *         boundary), or a ghost whose hull face has the point strictly
+   *         outside of it
+   */
+  private int walk(double x, double y, double z, int t) {
+    walkLoop:
+    while (true) {
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      int first = (seed & 0x7fffffff) % 4;
+      for (int k = 0; k < 4; k++) {
+        int i = (first + k) & 3;
+        if (side(t, i, x, y, z) < 0) {
+          t = adjacent[4 * t + i] >> 2;
+          if (infinite(t) != -1) {
+            return t;
+          }
+          continue walkLoop;
+        }
+      }
+      return t;
+    }
+  }
+
+  /**
+   * Inserts vertex v with the Bowyer-Watson algorithm: collects the
+   * tetrahedra whose spheres contain v, starting from the one v lies in and
+   * moving through faces, and replaces them with one tetrahedron per face on
+   * the boundary of the cavity, each with v as its new corner. The cavity is
+   * star-shaped as seen from v, so all of those are properly oriented.
+   *
+   * @return v, or the vertex that already lies at the coordinates of v (in
+   *         which case v is left out)
+   */
+  private int insert(int v) {
+    double x = xs[v], y = ys[v], z = zs[v];
+    int start = last;
+    int ghost = infinite(start);
+    if (ghost != -1) {
+      start = adjacent[4 * start + ghost] >> 2;
+    }
+    int t = walk(x, y, z, start);
+    if (infinite(t) == -1) {
+      for (int i = 0; i < 4; i++) {
+        int u = corners[4 * t + i];
+        if (xs[u] == x && ys[u] == y && zs[u] == z) {
+          return u;
+        }
+      }
+    }
+    // the cavity: depth first through faces, remembering which tetrahedra
+    // were tested in visited (2 * stamp inside, 2 * stamp + 1 outside)
+    stamp++;
+    int inside = 2 * stamp, outside = 2 * stamp + 1;
+    int size = 0, faces = 0, todo = 0;
+    visited[t] = inside;
+    cavity[size++] = t;
+    while (todo < size) {
+      t = cavity[todo++];
+      for (int i = 0; i < 4; i++) {
+        int u = adjacent[4 * t + i] >> 2;
+        if (visited[u] != inside && visited[u] != outside) {
+          if (conflicts(u, x, y, z)) {
+            visited[u] = inside;
+            if (size == cavity.length) {
+              cavity = Arrays.copyOf(cavity, 2 * size);
+            }
+            cavity[size++] = u;
+            continue;
+          }
+          visited[u] = outside;
+        }
+        if (visited[u] == outside) {
+          if (faces == boundary.length) {
+            boundary = Arrays.copyOf(boundary, 2 * faces);
+          }
+          boundary[faces++] = 4 * t + i;
+        }
+      }
+    }
+    fill(v, faces);
+    for (int i = 0; i < size; i++) {
+      release(cavity[i]);
+    }
+    return v;
+  }
+
+  /**
+   * Connects v to every face on the boundary of the cavity: the face opposite
+   * corner i of cavity tetrahedron t gets a new tetrahedron, which is t with
+   * corner i replaced by v. The new tetrahedra are glued to each other
+   * through the faces they share with v, found by the edge opposite v.
+   */
+  private void fill(int v, int faces) {
+    // at most half of the slots are used, for the 3 * faces / 2 edges
+    int slots = 64;
+    while (slots < 3 * faces) {
+      slots *= 2;
+    }
+    if (slots > edgeKeys.length) {
+      edgeKeys = new long[slots];
+      edgeFaces = new int[slots];
+    }
+    Arrays.fill(edgeKeys, 0, slots, -1);
+    for (int f = 0; f < faces; f++) {
+      int face = boundary[f];
+      int t = face >> 2;
+      int i = face & 3;
+      int outside = adjacent[face];
+      int s = allocate(corners[4 * t], corners[4 * t + 1],
+        corners[4 * t + 2], corners[4 * t + 3]);
+      corners[4 * s + i] = v;
+      link(4 * s + i, outside);
+      if (infinite(s) == -1) {
+        last = s;
+      }
+      // the other three faces of s all have v as a corner
+      for (int k = 0; k < 4; k++) {
+        if (k == i) {
+          continue;
+        }
+        // the edge of that face across from v, at the corners other than i, k
+        int l = ((k + 1) & 3) == i ? (k + 2) & 3 : (k + 1) & 3;
+        int a = corners[4 * s + l];
+        int b = corners[4 * s + 6 - i - k - l];
+        long key = (Math.min(a, b) + 1L) << 32 | (Math.max(a, b) + 1L);
+        int h = (int)((key * 0x9E3779B97F4A7C15L) >>> 40) & (slots - 1);
+        while (edgeKeys[h] != -1 && edgeKeys[h] != key) {
+          h = (h + 1) & (slots - 1);
+        }
+        if (edgeKeys[h] == key) {
+          link(4 * s + k, edgeFaces[h]);
+          edgeKeys[h] = -2;
+        } else {
+          edgeKeys[h] = key;
+          edgeFaces[h] = 4 * s + k;
+        }
+      }
+    }
+  }
+
+  /*****************************************************************************
+   *                           ACCESS
+   ****************************************************************************/
+  /** @return the amount of vertices */
+  public int size() {
+    return n;
+  }
+
+  /** @return the x coordinate of vertex v */
+  public double x(int v) {
+    return xs[index[v]];
+  }
+
+  /** @return the y coordinate of vertex v */
+  public double y(int v) {
+    return ys[index[v]];
+  }
+
+  /** @return the z coordinate of vertex v */
+  public double z(int v) {
+    return zs[index[v]];
+  }
+
+  /**
+   * Gets every (finite) tetrahedron as four vertex ids, packed one after the
+   * other into a single array, in one pass over the tetrahedra.
+   *
+   * @return the corners of tetrahedron i at [4i] to [4i+3], in the order
+   *         that makes Predicates.orient3d() positive
+   */
+  public int[] tetrahedra() {
+    int[] tetrahedra = new int[4 * count];
+    int size = 0;
+    for (int t = 0; t < top; t++) {
+      if (corners[4 * t] != FREE && infinite(t) == -1) {
+        for (int i = 0; i < 4; i++) {
+          tetrahedra[size++] = ids[corners[4 * t + i]];
+        }
+      }
+    }
+    return Arrays.copyOf(tetrahedra, size);
+  }
+
+  /**
+   * Gets the faces of the convex hull, from the ghost tetrahedra.
+   *
+   * @return the corners of face i at [3i], [3i+1] and [3i+2], in
+   *         counter-clockwise order as seen from outside the hull
+   */
+  public int[] hull() {
+    int[] hull = new int[3 * count];
+    int size = 0;
+    for (int t = 0; t < top; t++) {
+      int i = (corners[4 * t] == FREE) ? -1 : infinite(t);
+      if (i != -1) {
+        // infinity lies below the face in FACE order, so reverse it
+        hull[size++] = ids[corners[4 * t + FACE[i][2]]];
+        hull[size++] = ids[corners[4 * t + FACE[i][1]]];
+        hull[size++] = ids[corners[4 * t + FACE[i][0]]];
+      }
+    }
+    return Arrays.copyOf(hull, size);
+  }
+}
@@ -0,0 +1,2026 @@
+/*******************************************************************************
+ * An index based triangulation of a collection of points. Instead of mapping
+ * Points to lists of Points, every vertex is an int id into primitive
+ * coordinate arrays and every edge is stored as two half-edges in primitive
+ * int arrays:
+ *  origin[e] is the vertex the half-edge e leaves from
+ *  next[e]   is the half-edge following e around the face on the left of e
+ *  prev[e]   is the half-edge preceding e around that same face
+ * The two halves of an edge (its twins) are always allocated side by side, so
+ * the twin of e is simply e^1 and needs no array of its own.
+ *
+ * The navigation methods follow the naming of Guibas and Stolfi's quad-edge
+ * ("Primitives for the manipulation of general subdivisions and the
+ * computation of Voronoi diagrams", 1985): onext/oprev rotate around the
+ * origin of a half-edge and lnext/lprev walk around the face on its left.
+ *
+ * Points can be added one at a time with insert(), which walks to the triangle
+ * containing the point and flips edges around it until the triangulation is
+ * Delaunay again. remove() takes a vertex out again and retriangulates only
+ * the hole it leaves. constrain() forces a segment into the triangulation,
+ * making it a constrained Delaunay triangulation. move() gives every vertex
+ * new coordinates and repairs the triangulation with flips. nearest() and
+ * kNearest() find the vertices closest to any point by walking to it and
+ * searching outwards over the edges from there.
+ *
+ * The old HashMap adjacency list is still available through toAdjacency().
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ *  PointBuffer.java
+ *  Predicates.java
+ *  Delaunay.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class Triangulation {
+
+  /** The x and y coordinates of every vertex */
+  double[] xs;
+  double[] ys;
+
+  /** The Points the vertices were created from, used by toAdjacency() */
+  Point[] points;
+
+  /** The amount of vertices */
+  int n;
+
+  /** Any half-edge leaving each vertex, or -1 if the vertex has no edges */
+  int[] incident;
+
+  /**
+   * The vertex each vertex lies on top of, if it was left without edges for
+   * having the exact same coordinates, or -1
+   */
+  private int[] duplicateOf;
+
+  /** The vertex each half-edge leaves from, or -1 if the half-edge is free */
+  int[] origin;
+
+  /** The next and previous half-edges around the face left of each half-edge */
+  int[] next;
+  int[] prev;
+
+  /** The amount of half-edge slots that have been handed out */
+  int top = 0;
+
+  /** The first free half-edge pair (chained through next[]), or -1 */
+  int free = -1;
+
+  /** The amount of edges (pairs of half-edges) currently in use */
+  int edges = 0;
+
+  /** A half-edge with the outside of the triangulation on its left, or -1 */
+  int outer = -1;
+
+  /** Whether each edge (indexed by half-edge / 2) is a constraint */
+  boolean[] constrained;
+
+  /** The last vertex that was inserted, where the next walk starts, or -1 */
+  int last = -1;
+
+  /** The half-edges insert() still has to check, and how many there are */
+  private int[] stack = new int[16];
+  private int stackSize = 0;
+
+  /*****************************************************************************
+   *                           CONSTRUCTORS
+   ****************************************************************************/
+  /**
+   * Constructs an empty triangulation (no edges) over the given points. The
+   * vertex ids are the indices of the points in the given array.
+   *
+   * @param points the vertices of the triangulation
+   */
+  public Triangulation(Point[] points) {
+    this(points.length);
+    this.points = points;
+    for (int i = 0; i < n; i++) {
+      xs[i] = points[i].x;
+      ys[i] = points[i].y;
+    }
+  }
+
+  /**
+   * Constructs an empty triangulation (no edges) over the given coordinates.
+   * The vertex ids are the indices in the given arrays.
+   *
+   * @param xs,ys the x and y coordinates of the vertices
+   */
+  public Triangulation(double[] xs, double[] ys) {
+    this(xs.length);
+    if (ys.length != n) {
+      throw new IllegalArgumentException("xs and ys differ in length ("
+        + n + " != " + ys.length + ")!!");
+    }
+    System.arraycopy(xs, 0, this.xs, 0, n);
+    System.arraycopy(ys, 0, this.ys, 0, n);
+  }
+
+  /**
+   * Constructs an empty triangulation (no edges) over the points in the given
+   * buffer. The vertex ids are the indices of the points in the buffer.
+   *
+   * @param ps the vertices of the triangulation
+   */
+  public Triangulation(PointBuffer ps) {
+    this(ps.size());
+    System.arraycopy(ps.xs, ps.offset, xs, 0, n);
+    System.arraycopy(ps.ys, ps.offset, ys, 0, n);
+  }
+
+  /* Allocates room for n vertices and the edges of their triangulation */
+  private Triangulation(int n) {
+    this.n = n;
+    this.xs = new double[n];
+    this.ys = new double[n];
+    this.incident = new int[n];
+    Arrays.fill(incident, -1);
+    this.duplicateOf = new int[n];
+    Arrays.fill(duplicateOf, -1);
+    // a planar graph on n vertices never has more than 3n - 6 edges
+    int slots = 6 * Math.max(n, 3);
+    this.origin = new int[slots];
+    this.next = new int[slots];
+    this.prev = new int[slots];
+    this.constrained = new boolean[slots / 2];
+  }
+
+  /*****************************************************************************
+   *                           VERTICES
+   ****************************************************************************/
+  /** @return the amount of vertices */
+  public int size() {
+    return n;
+  }
+
+  /** @return a copy of the coordinates of the vertices */
+  public PointBuffer vertices() {
+    return new PointBuffer(Arrays.copyOf(xs, n), Arrays.copyOf(ys, n));
+  }
+
+  /** @return the x coordinate of vertex v */
+  public double x(int v) {
+    return xs[v];
+  }
+
+  /** @return the y coordinate of vertex v */
+  public double y(int v) {
+    return ys[v];
+  }
+
+  /**
+   * @return the Point vertex v was created from, or a new Point at its
+   *         coordinates if it was not created from a Point
+   */
+  public Point point(int v) {
+    if (points != null && points[v] != null) {
+      return points[v];
+    }
+    return new Point(xs[v], ys[v]);
+  }
+
+  /** @return any half-edge leaving vertex v, or -1 if v has no edges */
+  public int edge(int v) {
+    return incident[v];
+  }
+
+  /** @return the amount of vertices vertex v is connected to */
+  public int degree(int v) {
+    int first = incident[v];
+    if (first == -1) {
+      return 0;
+    }
+    int degree = 0;
+    int e = first;
+    do {
+      degree++;
+      e = onext(e);
+    } while (e != first);
+    return degree;
+  }
+
+  /**
+   * Gets the vertices vertex v is connected to. The half-edges around every
+   * vertex are kept in counter-clockwise order, so no angles are needed.
+   *
+   * @return the neighbours of v in counter-clockwise order around v
+   */
+  public int[] neighbors(int v) {
+    int[] neighbors = new int[degree(v)];
+    int e = incident[v];
+    for (int i = 0; i < neighbors.length; i++) {
+      neighbors[i] = dest(e);
+      e = onext(e);
+    }
+    return neighbors;
+  }
+
+  /*****************************************************************************
+   *                           NAVIGATION
+   ****************************************************************************/
+  /** @return the amount of edges (not half-edges) in the triangulation */
+  public int edgeCount() {
+    return edges;
+  }
+
+  /** @return the twin of half-edge e, running in the opposite direction */
+  public static int sym(int e) {
+    return e ^ 1;
+  }
+
+  /** @return the vertex half-edge e leaves from */
+  public int org(int e) {
+    return origin[e];
+  }
+
+  /** @return the vertex half-edge e points to */
+  public int dest(int e) {
+    return origin[e ^ 1];
+  }
+
+  /** @return the next half-edge counter-clockwise around the face left of e */
+  public int lnext(int e) {
+    return next[e];
+  }
+
+  /** @return the previous half-edge around the face left of e */
+  public int lprev(int e) {
+    return prev[e];
+  }
+
+  /** @return the next half-edge counter-clockwise around the origin of e */
+  public int onext(int e) {
+    return prev[e] ^ 1;
+  }
+
+  /** @return the next half-edge clockwise around the origin of e */
+  public int oprev(int e) {
+    return next[e ^ 1];
+  }
+
+  /** @return the next half-edge clockwise around the face right of e */
+  public int rprev(int e) {
+    return prev[e ^ 1] ^ 1;
+  }
+
+  /**
+   * Gets the convex hull of the triangulation by walking around its outside.
+   * If all vertices are colinear, the walk goes along the line and back again,
+   * so every vertex but the two ends is listed twice.
+   *
+   * @return the vertices on the hull in counter-clockwise order
+   */
+  public int[] hull() {
+    if (outer == -1) {
+      return new int[0];
+    }
+    int count = 0;
+    int e = outer;
+    do {
+      count++;
+      e = next[e];
+    } while (e != outer);
+    // the outside is on the left, so the walk is clockwise: fill back to front
+    int[] hull = new int[count];
+    do {
+      hull[--count] = origin[e];
+      e = next[e];
+    } while (e != outer);
+    return hull;
+  }
+
+  /*****************************************************************************
+   *                           TOPOLOGY
+   ****************************************************************************/
+  /**
+   * Creates a new edge from a to b that is not connected to any other edge.
+   *
+   * @return the half-edge from a to b
+   */
+  int makeEdge(int a, int b) {
+    edges++;
+    return makeEdge(a, b, allocate());
+  }
+
+  /**
+   * Same as the above, but uses the given (free) half-edge pair instead of
+   * allocating one. This is for builders that hand out the half-edges
+   * themselves, such as the parallel triangulation in Delaunay.
+   */
+  int makeEdge(int a, int b, int e) {
+    origin[e] = a;
+    origin[e ^ 1] = b;
+    next[e] = prev[e] = e ^ 1;
+    next[e ^ 1] = prev[e ^ 1] = e;
+    constrained[e >> 1] = false;
+    if (incident[a] == -1) {
+      incident[a] = e;
+    }
+    if (incident[b] == -1) {
+      incident[b] = e ^ 1;
+    }
+    return e;
+  }
+
+  /* Takes a free half-edge pair, or a new one if none were freed */
+  private int allocate() {
+    if (free != -1) {
+      int e = free;
+      free = next[free];
+      return e;
+    }
+    if (top + 2 > origin.length) {
+      grow();
+    }
+    top += 2;
+    return top - 2;
+  }
+
+  /* Doubles the room for half-edges */
+  private void grow() {
+    int slots = origin.length * 2;
+    origin = Arrays.copyOf(origin, slots);
+    next = Arrays.copyOf(next, slots);
+    prev = Arrays.copyOf(prev, slots);
+    constrained = Arrays.copyOf(constrained, slots / 2);
+  }
+
+  /**
+   * Guibas and Stolfi's splice: exchanges the rings around the origins of a
+   * and b. If they are in the same ring it is split in two, otherwise the two
+   * rings are joined. The faces on the left of a and b change accordingly.
+   */
+  void splice(int a, int b) {
+    int an = onext(a);
+    int bn = onext(b);
+    prev[a] = bn ^ 1;
+    next[bn ^ 1] = a;
+    prev[b] = an ^ 1;
+    next[an ^ 1] = b;
+  }
+
+  /**
+   * Adds a new edge from the destination of a to the origin of b, so that a,
+   * the new edge and b follow each other around the same face.
+   *
+   * @return the half-edge from dest(a) to org(b)
+   */
+  int connect(int a, int b) {
+    edges++;
+    return connect(a, b, allocate());
+  }
+
+  /** Same as the above, but uses the given (free) half-edge pair */
+  int connect(int a, int b, int e) {
+    makeEdge(dest(a), origin[b], e);
+    splice(e, lnext(a));
+    splice(e ^ 1, b);
+    return e;
+  }
+
+  /**
+   * Disconnects the edge of half-edge e from the triangulation and frees it.
+   */
+  void deleteEdge(int e) {
+    unlink(e);
+    int pair = e & ~1;
+    next[pair] = free;
+    free = pair;
+    edges--;
+  }
+
+  /**
+   * Disconnects the edge of half-edge e from the triangulation and marks it as
+   * free, without handing it back for reuse.
+   */
+  void unlink(int e) {
+    int a = origin[e];
+    int b = origin[e ^ 1];
+    // make sure the end points still know of an edge that remains
+    if (incident[a] == e) {
+      int o = onext(e);
+      incident[a] = (o == e) ? -1 : o;
+    }
+    if (incident[b] == (e ^ 1)) {
+      int o = onext(e ^ 1);
+      incident[b] = (o == (e ^ 1)) ? -1 : o;
+    }
+    splice(e, oprev(e));
+    splice(e ^ 1, oprev(e ^ 1));
+    origin[e] = origin[e ^ 1] = -1;
+  }
+
+  /**
+   * Guibas and Stolfi's swap: turns the edge of half-edge e, the diagonal of
+   * the quadrilateral formed by the two triangles on either side of it, into
+   * the other diagonal of that quadrilateral. Afterwards e runs from the
+   * vertex that was on its right to the vertex that was on its left.
+   */
+  void flip(int e) {
+    int a = oprev(e);
+    int b = oprev(e ^ 1);
+    // make sure the old end points still know of an edge that remains
+    if (incident[origin[e]] == e) {
+      incident[origin[e]] = a;
+    }
+    if (incident[origin[e ^ 1]] == (e ^ 1)) {
+      incident[origin[e ^ 1]] = b;
+    }
+    splice(e, a);
+    splice(e ^ 1, b);
+    splice(e, lnext(a));
+    splice(e ^ 1, lnext(b));
+    origin[e] = dest(a);
+    origin[e ^ 1] = dest(b);
+  }
+
+  /*****************************************************************************
+   *                           GEOMETRY
+   ****************************************************************************/
+  /**
+   * @return true if the vertices a, b and c make a counter-clockwise turn
+   */
+  boolean ccw(int a, int b, int c) {
+    return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) > 0;
+  }
+
+  /**
+   * @return true if vertex d lies inside the circle through the
+   *         counter-clockwise triangle a-b-c
+   */
+  boolean inCircle(int a, int b, int c, int d) {
+    return Predicates.incircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c],
+      xs[d], ys[d]) > 0;
+  }
+
+  /**
+   * Checks whether the face on the left of half-edge e is a (counter-clockwise)
+   * triangle, as opposed to the outer face around the triangulation.
+   */
+  boolean isTriangle(int e) {
+    int f = next[e];
+    return next[next[f]] == e && ccw(origin[e], origin[f], origin[next[f]]);
+  }
+
+  /* Checks on which side of half-edge e the point (x, y) lies, see orient2d */
+  private int side(int e, double x, double y) {
+    int a = origin[e];
+    int b = origin[e ^ 1];
+    return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], x, y);
+  }
+
+  /* Checks whether vertices a and b lie at the exact same coordinates */
+  private boolean same(int a, int b) {
+    return xs[a] == xs[b] && ys[a] == ys[b];
+  }
+
+  /*****************************************************************************
+   *                           INSERTION
+   ****************************************************************************/
+  /**
+   * Finds where the point (x, y) lies by walking from triangle to triangle in
+   * its direction, starting at a triangle around the given vertex (or around
+   * the last inserted vertex if near is -1). Every step crosses an edge that
+   * has the point on its other side, so for spatially coherent queries only a
+   * handful of triangles are visited.
+   *
+   * @param x,y the point to look for
+   * @param near a vertex close to the point, or -1
+   * @return a half-edge with a triangle containing the point (possibly on its
+   *         boundary) on its left, or a half-edge on the hull with the point
+   *         strictly on its left (the outside) if the point lies outside the
+   *         triangulation, or -1 if there are no triangles to walk over
+   */
+  public int locate(double x, double y, int near) {
+    int start = start(near);
+    return (start == -1) ? -1 : walk(x, y, start);
+  }
+
+  /**
+   * Same as the above, but starts the walk at the triangle left of half-edge
+   * e, such as the answer to the query before this one. Walks only read the
+   * triangulation, so threads may locate points in parallel as long as no
+   * vertices are inserted or removed meanwhile.
+   *
+   * @param e a half-edge with a triangle on its left, or -1 to start anywhere
+   */
+  public int locateFrom(double x, double y, int e) {
+    if (e < 0 || e >= top || origin[e] == -1 || !isTriangle(e)) {
+      return locate(x, y, -1);
+    }
+    return walk(x, y, e);
+  }
+
+  /**
+   * Finds the vertex at the exact coordinates (x, y) with locate().
+   *
+   * @param x,y the coordinates to look for
+   * @param near a vertex close to the point, or -1
+   * @return the vertex with edges at (x, y), or -1 if there is none
+   */
+  public int vertexAt(double x, double y, int near) {
+    int e = locate(x, y, near);
+    if (e != -1 && !isTriangle(e)) {
+      // (x, y) lies outside the triangulation
+      return -1;
+    }
+    if (e == -1) {
+      // no triangles: look along the path of edges, if there is one
+      if (outer == -1) {
+        return (last != -1 && xs[last] == x && ys[last] == y) ? last : -1;
+      }
+      e = outer;
+    }
+    int f = e;
+    do {
+      if (xs[origin[f]] == x && ys[origin[f]] == y) {
+        return origin[f];
+      }
+      f = next[f];
+    } while (f != e);
+    return -1;
+  }
+
+  /**
+   * Finds the vertex at the coordinates of every point in the given buffer.
+   * Every walk starts at the vertex found for the point before it, so
+   * queries that lie close to the ones before them are found quickly.
+   *
+   * @param queries the coordinates to look for
+   * @return for every point in queries, the vertex with edges at its exact
+   *         coordinates, or -1 if there is none
+   */
+  public int[] vertexAt(PointBuffer queries) {
+    int[] found = new int[queries.size()];
+    int near = last;
+    for (int i = 0; i < found.length; i++) {
+      found[i] = vertexAt(queries.x(i), queries.y(i), near);
+      if (found[i] != -1) {
+        near = found[i];
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Inserts the Point into the triangulation and restores the Delaunay
+   * property by flipping edges. The walk that finds the point's triangle
+   * starts at the last inserted vertex, so a stream of points that lie close
+   * to each other costs close to constant time per point.
+   *
+   * @param p the point to insert
+   * @return the id of the new vertex, or of the vertex that already lies at
+   *         the exact same coordinates
+   */
+  public int insert(Point p) {
+    int v = addVertex(p.x, p.y);
+    if (points == null) {
+      points = new Point[xs.length];
+    }
+    points[v] = p;
+    return removeIfDuplicate(v, insertVertex(v, last));
+  }
+
+  /** Same as the above, but with the coordinates of the point */
+  public int insert(double x, double y) {
+    return insert(x, y, last);
+  }
+
+  /**
+   * Inserts every point in the given buffer, in order, see insert(). Points
+   * that lie close to the ones before them are inserted quickly; scattered
+   * points are better off with Delaunay.incremental(), which orders them.
+   *
+   * @param ps the points to insert
+   * @return the vertex of every point in ps (an earlier vertex for a point
+   *         at the exact same coordinates)
+   */
+  public int[] insert(PointBuffer ps) {
+    int[] ids = new int[ps.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = insert(ps.x(i), ps.y(i), last);
+    }
+    return ids;
+  }
+
+  /**
+   * Same as the above, but starts the walk at the given vertex rather than at
+   * the last inserted one.
+   *
+   * @param near a vertex close to (x, y), or -1
+   */
+  public int insert(double x, double y, int near) {
+    int v = addVertex(x, y);
+    return removeIfDuplicate(v, insertVertex(v, near));
+  }
+
+  /**
+   * Remembers that the edgeless vertex v lies on top of vertex u, as a
+   * builder that skips v does, so that move() inserts v once they part.
+   */
+  void setDuplicate(int v, int u) {
+    duplicateOf[v] = u;
+  }
+
+  /* Takes back the last added vertex v if it turned out to be vertex u */
+  private int removeIfDuplicate(int v, int u) {
+    if (u != v) {
+      if (points != null) {
+        points[v] = null;
+      }
+      duplicateOf[v] = -1;
+      n--;
+    }
+    return u;
+  }
+
+  /* Adds a vertex without edges, making room for it if needed */
+  private int addVertex(double x, double y) {
+    if (n == xs.length) {
+      int size = Math.max(2 * n, 4);
+      xs = Arrays.copyOf(xs, size);
+      ys = Arrays.copyOf(ys, size);
+      incident = Arrays.copyOf(incident, size);
+      Arrays.fill(incident, n, size, -1);
+      duplicateOf = Arrays.copyOf(duplicateOf, size);
+      if (points != null) {
+        points = Arrays.copyOf(points, size);
+      }
+    }
+    xs[n] = x;
+    ys[n] = y;
+    incident[n] = -1;
+    duplicateOf[n] = -1;
+    return n++;
+  }
+
+  /**
+   * Connects the existing (edgeless) vertex v to the triangulation and flips
+   * edges until it is Delaunay again.
+   *
+   * @param near the vertex to start looking from, or -1
+   * @return v, or the vertex at the exact same coordinates as v (in which case
+   *         v is left without edges)
+   */
+  int insertVertex(int v, int near) {
+    int u = connectVertex(v, near);
+    duplicateOf[v] = (u == v) ? -1 : u;
+    return u;
+  }
+
+  /* insertVertex(), without remembering which vertex v lies on top of */
+  private int connectVertex(int v, int near) {
+    if (outer == -1) {
+      // there are no edges yet: connect to the single vertex before this one
+      if (last == -1 || last == v) {
+        last = v;
+        return v;
+      }
+      if (same(last, v)) {
+        return last;
+      }
+      outer = makeEdge(last, v);
+      last = v;
+      return v;
+    }
+    if (!isTriangle(outer ^ 1)) {
+      // every vertex lies on one line, so there is no triangle to walk over
+      int u = insertFlat(v);
+      if (u == v) {
+        last = v;
+      }
+      return u;
+    }
+    int e = walk(xs[v], ys[v], start(near));
+    if (isTriangle(e)) {
+      int f = next[e];
+      int g = next[f];
+      for (int h : new int[]{e, f, g}) {
+        if (same(origin[h], v)) {
+          return origin[h];
+        }
+      }
+      for (int h : new int[]{e, f, g}) {
+        if (side(h, xs[v], ys[v]) == 0) {
+          splitEdge(h, v);
+          last = v;
+          return v;
+        }
+      }
+      fanInside(v, e);
+    } else {
+      fanOutside(v, e);
+    }
+    legalize(v);
+    last = v;
+    return v;
+  }
+
+  /**
+   * Inserts a new vertex at (x, y) into the edge of half-edge e, even if
+   * rounding put (x, y) just off the line of the edge, as happens to the
+   * points that split segments during refinement. (x, y) must lie close
+   * enough to the edge that the triangles on either side of it stay
+   * counter-clockwise. A hull edge split this way may bend the hull inwards or
+   * outwards by that rounding.
+   *
+   * @return the new vertex
+   */
+  int insertOnEdge(double x, double y, int e) {
+    int v = addVertex(x, y);
+    splitEdge(isTriangle(e) ? e : e ^ 1, v);
+    last = v;
+    return v;
+  }
+
+  /**
+   * Splits the edge of half-edge h, which has a triangle on its left, at
+   * vertex v: removes the edge and connects v to every vertex of the hole
+   * left behind (or of the hull it can see, if the edge was on the hull).
+   */
+  private void splitEdge(int h, int v) {
+    int after = next[h];
+    int a = origin[h];
+    int b = origin[h ^ 1];
+    boolean hull = !isTriangle(h ^ 1);
+    boolean constraint = constrained[h >> 1];
+    deleteEdge(h);
+    if (hull) {
+      // v only gets the corners of the triangle, so that no hull vertex next
+      // to the edge ends up inside if rounding put v just outside the edge
+      int first = makeEdge(b, v);
+      splice(first, after);
+      push(after);
+      int base = connect(after, first ^ 1);
+      int e = oprev(base);
+      push(e);
+      connect(e, base ^ 1);
+      outer = first;
+    } else {
+      fanInside(v, after);
+    }
+    if (constraint) {
+      // both halves of a split constraint are constraints
+      constrained[find(v, a) >> 1] = true;
+      constrained[find(v, b) >> 1] = true;
+    }
+    legalize(v);
+  }
+
+  /* Gets a half-edge with a triangle on its left close to the given vertex */
+  private int start(int near) {
+    if (near != -1 && near < n && incident[near] != -1) {
+      int first = incident[near];
+      int e = first;
+      do {
+        if (isTriangle(e)) {
+          return e;
+        }
+        e = onext(e);
+      } while (e != first);
+    }
+    if (outer == -1 || !isTriangle(outer ^ 1)) {
+      return -1;
+    }
+    return outer ^ 1;
+  }
+
+  /**
+   * The visibility walk behind locate(): from the triangle left of e, keeps on
+   * crossing an edge that has (x, y) strictly on its other side. The edges of
+   * every triangle are tried from a random one onwards, which guarantees that
+   * the walk ends even if the triangulation is not Delaunay. The random
+   * numbers are seeded by e, so walks change nothing and may run in parallel.
+   */
+  private int walk(double x, double y, int e) {
+    // any odd seed will do for xorshift
+    int seed = e * 0x9E3779B9 | 1;
+    walkLoop:
+    while (true) {
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      int h = e;
+      for (int i = (seed & 0x7fffffff) % 3; i > 0; i--) {
+        h = next[h];
+      }
+      for (int i = 0; i < 3; i++, h = next[h]) {
+        if (side(h, x, y) < 0) {
+          e = h ^ 1;
+          if (!isTriangle(e)) {
+            // walked off the hull
+            return e;
+          }
+          continue walkLoop;
+        }
+      }
+      return e;
+    }
+  }
+
+  /**
+   * Connects v to every vertex of the face left of e, which must contain v,
+   * and remembers the edges of the face so that legalize() can check them.
+   */
+  private void fanInside(int v, int e) {
+    int first = makeEdge(origin[e], v);
+    splice(first, e);
+    int base = first;
+    do {
+      push(e);
+      base = connect(e, base ^ 1);
+      e = oprev(base);
+    } while (lnext(e) != first);
+    push(e);
+  }
+
+  /**
+   * Connects v, which lies outside the triangulation, to every vertex on the
+   * part of the hull it can see. The hull half-edge e must have v strictly on
+   * its left, the others are found by walking along the hull from e.
+   */
+  private void fanOutside(int v, int e) {
+    double x = xs[v], y = ys[v];
+    while (side(prev[e], x, y) > 0) {
+      e = prev[e];
+    }
+    int end = e;
+    while (side(next[end], x, y) > 0) {
+      end = next[end];
+    }
+    int first = makeEdge(origin[e], v);
+    splice(first, e);
+    int base = first;
+    while (true) {
+      push(e);
+      base = connect(e, base ^ 1);
+      if (e == end) {
+        break;
+      }
+      e = oprev(base);
+    }
+    outer = first;
+  }
+
+  /**
+   * Inserts v into a triangulation whose vertices all lie on one line, in which
+   * case its edges form a path along that line.
+   */
+  private int insertFlat(int v) {
+    double x = xs[v], y = ys[v];
+    int line = outer;
+    if (side(line, x, y) != 0) {
+      // v lies off the line, so it can see one whole side of the path
+      fanOutside(v, (side(line, x, y) > 0) ? line : line ^ 1);
+      // the circle through v and two neighbours on the line holds no other
+      // vertex of the line, so there is nothing for legalize() to check
+      stackSize = 0;
+      return v;
+    }
+    // v lies on the line: find the edge it splits or the end it extends
+    int e = outer;
+    do {
+      int a = origin[e];
+      int b = origin[e ^ 1];
+      if (same(a, v)) {
+        return a;
+      }
+      boolean up = lessThan(a, b);
+      if (up && lessThan(a, v) && lessThan(v, b)) {
+        split(e, v);
+        return v;
+      }
+      if (next[e] == (e ^ 1) && (up ? lessThan(b, v) : lessThan(v, b))) {
+        // b is an end of the path and v lies beyond it
+        splice(makeEdge(b, v), e ^ 1);
+        return v;
+      }
+      e = next[e];
+    } while (e != outer);
+    return v;
+  }
+
+  /* Shortens the edge of e to end at v and adds an edge from v to its end */
+  private void split(int e, int v) {
+    int b = origin[e ^ 1];
+    int before = oprev(e ^ 1);
+    splice(e ^ 1, before);
+    int f = makeEdge(v, b);
+    constrained[f >> 1] = constrained[e >> 1];
+    if (incident[b] == (e ^ 1)) {
+      incident[b] = f ^ 1;
+    }
+    origin[e ^ 1] = v;
+    splice(f, e ^ 1);
+    if (before != (e ^ 1)) {
+      splice(f ^ 1, before);
+    }
+  }
+
+  /* Orders vertices by x and then by y, which sorts points along a line */
+  private boolean lessThan(int a, int b) {
+    return xs[a] < xs[b] || (xs[a] == xs[b] && ys[a] < ys[b]);
+  }
+
+  /* Remembers half-edge e for legalize() */
+  private void push(int e) {
+    if (stackSize == stack.length) {
+      stack = Arrays.copyOf(stack, 2 * stackSize);
+    }
+    stack[stackSize++] = e;
+  }
+
+  /**
+   * Lawson's flips: every remembered half-edge has a triangle with v on its
+   * left. If the vertex across the edge lies inside that triangle's circle,
+   * the edge is flipped to connect v to it, and the two edges that now face v
+   * are checked in turn. Only edges around v can change, so this costs time
+   * proportional to the amount of triangles v ends up with.
+   */
+  private void legalize(int v) {
+    while (stackSize > 0) {
+      int e = stack[--stackSize];
+      int s = e ^ 1;
+      if (constrained[e >> 1] || !isTriangle(s)) {
+        continue;
+      }
+      int d = origin[prev[s]];
+      if (inCircle(origin[e], origin[s], v, d)) {
+        flip(e);
+        push(prev[e]);
+        push(next[e ^ 1]);
+      }
+    }
+  }
+
+  /*****************************************************************************
+   *                           NEAREST NEIGHBOURS
+   ****************************************************************************/
+  /**
+   * Finds the vertex closest to (x, y). The walk of locate() finds where the
+   * point lies, and from there the search keeps moving to the closest
+   * neighbour while it is closer than the current vertex. In a Delaunay
+   * triangulation a vertex that is not the closest always has a closer
+   * neighbour (the segment to the point leaves its Voronoi cell into the cell
+   * of a neighbour), so the search ends at the closest vertex. Constraints can
+   * break this, in which case the vertex found is only closer than all of its
+   * neighbours.
+   *
+   * @param x,y the point to look for
+   * @param near a vertex close to the point, such as the answer to the query
+   *        before this one, or -1
+   * @return the vertex closest to (x, y), or -1 if there are no vertices
+   */
+  public int nearest(double x, double y, int near) {
+    int e = locate(x, y, near);
+    if (e != -1) {
+      return descend(x, y, origin[e]);
+    }
+    // no triangles: descend along the path of edges, if there is one
+    if (outer != -1) {
+      return descend(x, y, origin[outer]);
+    }
+    // no edges: all vertices lie at the same coordinates
+    return (last != -1) ? last : n - 1;
+  }
+
+  /**
+   * Finds the closest vertex to every point in the given buffer. The queries
+   * are answered in their order along a Hilbert curve and every search
+   * starts at the answer for the query before it, so each one takes only a
+   * few steps, whatever order the queries come in.
+   *
+   * @param queries the points to look for
+   * @return for every point in queries, the vertex closest to it
+   */
+  public int[] nearest(PointBuffer queries) {
+    int[] found = new int[queries.size()];
+    int near = last;
+    for (int i : Delaunay.hilbert(queries.xs(), queries.ys())) {
+      found[i] = near = nearest(queries.x(i), queries.y(i), near);
+    }
+    return found;
+  }
+
+  /**
+   * Finds the k vertices closest to (x, y). From the closest vertex, see
+   * nearest(), a best-first search takes the closest vertex out of a priority
+   * queue and adds its neighbours to it, until k vertices have been taken.
+   * The vertices within any distance of the point are connected to the
+   * closest one through each other (by the same argument as nearest()), so
+   * they are taken in order of their distance. The queue only ever holds
+   * neighbours of the vertices taken so far.
+   *
+   * @param x,y the point to look for
+   * @param k the amount of vertices to find
+   * @param near a vertex close to the point, or -1
+   * @return the k vertices closest to (x, y), closest first, or all of them if
+   *         there are fewer than k vertices
+   */
+  public int[] kNearest(double x, double y, int k, int near) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k must not be negative!!");
+    }
+    return kNearest(x, y, k, near, new Frontier());
+  }
+
+  /**
+   * Finds the k closest vertices to every point in the given buffer, see
+   * kNearest(). Like nearest(), the queries are answered along a Hilbert
+   * curve, every search starting at the closest vertex of the one before.
+   *
+   * @param queries the points to look for
+   * @param k the amount of vertices to find for every point
+   * @return for every point in queries, its k closest vertices, closest first
+   */
+  public int[][] kNearest(PointBuffer queries, int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k must not be negative!!");
+    }
+    int[][] found = new int[queries.size()][];
+    Frontier frontier = new Frontier();
+    int near = last;
+    for (int i : Delaunay.hilbert(queries.xs(), queries.ys())) {
+      found[i] = kNearest(queries.x(i), queries.y(i), k, near, frontier);
+      if (found[i].length > 0) {
+        near = found[i][0];
+      }
+    }
+    return found;
+  }
+
+  /* The best-first search of kNearest(), with the given queue */
+  private int[] kNearest(double x, double y, int k, int near,
+      Frontier frontier) {
+    int v = (k == 0) ? -1 : nearest(x, y, near);
+    if (v == -1) {
+      return new int[0];
+    }
+    int[] found = new int[Math.min(k, n)];
+    int count = 0;
+    frontier.clear();
+    frontier.see(v);
+    frontier.add(v, distance2(x, y, v));
+    while (count < found.length && frontier.size > 0) {
+      int u = frontier.poll();
+      found[count++] = u;
+      int first = incident[u];
+      if (first == -1) {
+        continue;
+      }
+      int e = first;
+      do {
+        int w = origin[e ^ 1];
+        if (frontier.see(w)) {
+          frontier.add(w, distance2(x, y, w));
+        }
+        e = onext(e);
+      } while (e != first);
+    }
+    return (count == found.length) ? found : Arrays.copyOf(found, count);
+  }
+
+  /**
+   * Moves from vertex v to its closest neighbour for as long as that is
+   * closer to (x, y) than v itself.
+   */
+  private int descend(double x, double y, int v) {
+    double best = distance2(x, y, v);
+    for (int from = -1; from != v; ) {
+      from = v;
+      int first = incident[from];
+      int e = first;
+      do {
+        int w = origin[e ^ 1];
+        double d = distance2(x, y, w);
+        if (d < best) {
+          best = d;
+          v = w;
+        }
+        e = onext(e);
+      } while (e != first);
+    }
+    return v;
+  }
+
+  /* The squared distance from (x, y) to vertex v */
+  private double distance2(double x, double y, int v) {
+    double dx = xs[v] - x, dy = ys[v] - y;
+    return dx * dx + dy * dy;
+  }
+
+  /**
+   * The priority queue of kNearest(): a binary min-heap of vertices by their
+   * squared distance to the query, and an open addressing hash set of the
+   * vertices that were ever added, so a search allocates nothing per vertex
+   * and one queue can be reused for many searches.
+   */
+  private static class Frontier {
+    int[] heap = new int[16];
+    double[] keys = new double[16];
+    int size = 0;
+
+    /* Every vertex that was added plus one, 0 for an empty slot */
+    int[] seen = new int[64];
+    int seenSize = 0;
+
+    void clear() {
+      size = 0;
+      if (seenSize > 0) {
+        Arrays.fill(seen, 0);
+        seenSize = 0;
+      }
+    }
+
+    /** @return true if v was not seen before, and marks it as seen */
+    boolean see(int v) {
+      if (2 * (seenSize + 1) > seen.length) {
+        int[] old = seen;
+        seen = new int[2 * old.length];
+        seenSize = 0;
+        for (int s : old) {
+          if (s != 0) {
+            see(s - 1);
+          }
+        }
+      }
+      int mask = seen.length - 1;
+      int i = (v * 0x9E3779B9 >>> 16) & mask;
+      while (seen[i] != 0) {
+        if (seen[i] == v + 1) {
+          return false;
+        }
+        i = (i + 1) & mask;
+      }
+      seen[i] = v + 1;
+      seenSize++;
+      return true;
+    }
+
+    void add(int v, double key) {
+      if (size == heap.length) {
+        heap = Arrays.copyOf(heap, 2 * size);
+        keys = Arrays.copyOf(keys, 2 * size);
+      }
+      int i = size++;
+      while (i > 0 && keys[(i - 1) >> 1] > key) {
+        heap[i] = heap[(i - 1) >> 1];
+        keys[i] = keys[(i - 1) >> 1];
+        i = (i - 1) >> 1;
+      }
+      heap[i] = v;
+      keys[i] = key;
+    }
+
+    /** @return the vertex with the smallest key, taken out of the heap */
+    int poll() {
+      int top = heap[0];
+      int v = heap[--size];
+      double key = keys[size];
+      int i = 0;
+      for (int child = 1; child < size; child = 2 * i + 1) {
+        if (child + 1 < size && keys[child + 1] < keys[child]) {
+          child++;
+        }
+        if (keys[child] >= key) {
+          break;
+        }
+        heap[i] = heap[child];
+        keys[i] = keys[child];
+        i = child;
+      }
+      heap[i] = v;
+      keys[i] = key;
+      return top;
+    }
+  }
+
+  /*****************************************************************************
+   *                           CONSTRAINTS
+   ****************************************************************************/
+  /** @return true if the edge of half-edge e is a constraint */
+  public boolean isConstrained(int e) {
+    return constrained[e >> 1];
+  }
+
+  /**
+   * Gets the half-edge from vertex a to vertex b by rotating around a.
+   *
+   * @return the half-edge from a to b, or -1 if a and b are not connected
+   */
+  public int find(int a, int b) {
+    int first = incident[a];
+    if (first == -1) {
+      return -1;
+    }
+    int e = first;
+    do {
+      if (dest(e) == b) {
+        return e;
+      }
+      e = onext(e);
+    } while (e != first);
+    return -1;
+  }
+
+  /**
+   * Forces the segment from vertex a to vertex b into the triangulation, which
+   * makes it a constrained Delaunay triangulation. The edges the segment
+   * crosses are removed, and the two holes they leave on either side of it
+   * are filled again with triangles that are Delaunay except across
+   * constraints. No vertices are added: if the segment runs through other
+   * vertices, it is made up of the edges between them. Constraints are never
+   * flipped by insert().
+   *
+   * @param a,b the end points of the segment
+   * @throws IllegalArgumentException if the segment crosses another constraint
+   *         or if a or b is not part of the triangulation
+   */
+  public void constrain(int a, int b) {
+    if (incident[a] == -1 || incident[b] == -1) {
+      throw new IllegalArgumentException("vertex " + (incident[a] == -1 ? a : b)
+        + " is not part of the triangulation!!");
+    }
+    int[] crossed = new int[8];
+    segmentLoop:
+    while (a != b) {
+      double bx = xs[b], by = ys[b];
+      // find the triangle around a that the segment leaves a through
+      int first = incident[a];
+      int e = first;
+      int crossing = -1;
+      do {
+        int p = dest(e);
+        if (p == b || (side(e ^ 1, bx, by) == 0 && between(a, p, b))) {
+          // the segment (or its first part) is an edge already
+          constrained[e >> 1] = true;
+          a = p;
+          continue segmentLoop;
+        }
+        if (isTriangle(e) && side(e, bx, by) > 0 && side(onext(e), bx, by) < 0) {
+          crossing = next[e];
+        }
+        e = onext(e);
+      } while (e != first);
+      if (crossing == -1) {
+        throw new IllegalArgumentException("can not constrain " + a + " to "
+          + b + "!!");
+      }
+      int start = prev[crossing];
+      // walk along the segment, remembering every edge it crosses
+      int count = 0;
+      int end;
+      while (true) {
+        if (constrained[crossing >> 1]) {
+          throw new IllegalArgumentException("segment " + a + " to " + b
+            + " crosses a constraint!!");
+        }
+        if (count == crossed.length) {
+          crossed = Arrays.copyOf(crossed, 2 * count);
+        }
+        crossed[count++] = crossing;
+        int s = crossing ^ 1;
+        int r = origin[prev[s]];
+        int o = Predicates.orient2d(xs[a], ys[a], bx, by, xs[r], ys[r]);
+        if (r == b || o == 0) {
+          // the segment ends at r, or runs through it
+          end = next[s];
+          break;
+        }
+        crossing = (o > 0) ? next[s] : prev[s];
+      }
+      int r = dest(end);
+      for (int i = 0; i < count; i++) {
+        deleteEdge(crossed[i]);
+      }
+      // the segment splits the hole in two, fill each of them
+      int ab = connect(end, start);
+      constrained[ab >> 1] = true;
+      fill(ab);
+      fill(ab ^ 1);
+      a = r;
+    }
+  }
+
+  /* Whether vertex p lies strictly between vertices a and b on their line */
+  private boolean between(int a, int p, int b) {
+    return lessThan(a, b) ? lessThan(a, p) && lessThan(p, b)
+                          : lessThan(b, p) && lessThan(p, a);
+  }
+
+  /**
+   * Triangulates the face on the left of half-edge e, a hole left behind by
+   * constrain(), with constrained Delaunay triangles. The vertex c of the face
+   * whose circle with e contains no other vertex of the face forms a triangle
+   * with e, and the parts of the face on either side of that triangle are
+   * filled the same way (Anglada, "An improved incremental algorithm for
+   * constructing restricted Delaunay triangulations", 1997).
+   */
+  private void fill(int e) {
+    int[] todo = new int[16];
+    int count = 0;
+    todo[count++] = e;
+    while (count > 0) {
+      e = todo[--count];
+      if (next[next[next[e]]] == e) {
+        continue;
+      }
+      int a = origin[e ^ 1];
+      int b = origin[e];
+      // the half-edge of the face that ends at the best vertex c
+      int into = next[e];
+      for (int f = next[into]; f != prev[e]; f = next[f]) {
+        if (inCircle(b, a, dest(into), dest(f))) {
+          into = f;
+        }
+      }
+      int c = dest(into);
+      if (count + 2 > todo.length) {
+        todo = Arrays.copyOf(todo, 2 * todo.length);
+      }
+      if (into != next[e]) {
+        // cut off the part of the face between a and c
+        int ca = connect(into, next[e]);
+        todo[count++] = ca;
+      }
+      if (next[next[e]] != prev[e]) {
+        // cut off the part of the face between c and b
+        int cb = connect(next[e], e);
+        todo[count++] = cb ^ 1;
+      }
+    }
+  }
+
+  /*****************************************************************************
+   *                           DELETION
+   ****************************************************************************/
+  /**
+   * Removes vertex v from the triangulation and fills the hole it leaves
+   * behind (the polygon formed by its neighbours) with Delaunay triangles by
+   * clipping ears off that polygon. Only the triangles around v change, so
+   * this takes time proportional to the degree of v rather than to the size
+   * of the triangulation. The vertex keeps its id, but has no edges anymore.
+   *
+   * @param v the vertex to remove
+   */
+  public void remove(int v) {
+    int first = incident[v];
+    if (first == -1) {
+      return;
+    }
+    if (last == v) {
+      last = dest(first);
+    }
+    if (!isTriangle(outer ^ 1)) {
+      removeFlat(v);
+      return;
+    }
+    // the spokes of v in counter-clockwise order, starting after the outside
+    // if v lies on the hull
+    int k = degree(v);
+    boolean hull = false;
+    int e = first;
+    for (int i = 0; i < k; i++, e = onext(e)) {
+      if (!isTriangle(e)) {
+        hull = true;
+        first = onext(e);
+        break;
+      }
+    }
+    // the polygon left behind: its vertices in counter-clockwise order around
+    // v and the half-edges from each to the next, which have the hole on
+    // their left once the spokes are deleted
+    int[] vertex = new int[k];
+    int[] edge = new int[k];
+    int[] before = new int[k];
+    int[] after = new int[k];
+    e = first;
+    for (int i = 0; i < k; i++, e = onext(e)) {
+      vertex[i] = dest(e);
+      edge[i] = next[e];
+      before[i] = (i + k - 1) % k;
+      after[i] = (i + 1) % k;
+    }
+    e = first;
+    for (int i = 0; i < k; i++) {
+      int spoke = e;
+      e = onext(e);
+      deleteEdge(spoke);
+    }
+    int size = k;
+    if (hull) {
+      // the polygon is an open path from vertex[0] to vertex[k-1]
+      before[0] = -1;
+      after[k - 1] = -1;
+    }
+    // clip ears until only a triangle is left (or no ears are left on the
+    // path along the hull)
+    int[] queue = new int[3 * k];
+    boolean[] clipped = new boolean[k];
+    while (size > 3 || (hull && size > 2)) {
+      int queued = 0;
+      for (int i = 0; i < k; i++) {
+        if (!clipped[i] && before[i] != -1 && after[i] != -1) {
+          queue[queued++] = i;
+        }
+      }
+      boolean progress = false;
+      while (queued > 0 && (size > 3 || (hull && size > 2))) {
+        int b = queue[--queued];
+        if (clipped[b] || !isEar(vertex, before, after, clipped, k, b)) {
+          continue;
+        }
+        int a = before[b];
+        int c = after[b];
+        // the new half-edge from c to a closes the triangle a-b-c
+        int ca = connect(edge[b], edge[a]);
+        edge[a] = ca ^ 1;
+        after[a] = c;
+        before[c] = a;
+        clipped[b] = true;
+        size--;
+        progress = true;
+        // only the ears at a and c changed
+        if (before[a] != -1) {
+          queue[queued++] = a;
+        }
+        if (after[c] != -1) {
+          queue[queued++] = c;
+        }
+      }
+      if (!progress) {
+        break;
+      }
+    }
+    if (hull) {
+      // whatever is left of the path is part of the hull now
+      outer = edge[0];
+    }
+  }
+
+  /**
+   * Checks whether the corner at position b of the polygon left behind by
+   * remove() is an ear that can be cut off as a Delaunay triangle: it has to
+   * turn counter-clockwise and no other vertex of the polygon may lie inside
+   * the circle through its corners.
+   */
+  private boolean isEar(int[] vertex, int[] before, int[] after,
+      boolean[] clipped, int k, int b) {
+    int a = before[b];
+    int c = after[b];
+    if (a == -1 || c == -1 || !ccw(vertex[a], vertex[b], vertex[c])) {
+      return false;
+    }
+    for (int i = 0; i < k; i++) {
+      if (!clipped[i] && i != a && i != b && i != c
+          && inCircle(vertex[a], vertex[b], vertex[c], vertex[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes v from a triangulation whose vertices all lie on one line, where
+   * its edges form a path: v is cut out and its two neighbours (if it has
+   * two) are joined.
+   */
+  private void removeFlat(int v) {
+    int e = incident[v];
+    int a = dest(e);
+    int b = (onext(e) != e) ? dest(onext(e)) : -1;
+    while (incident[v] != -1) {
+      deleteEdge(incident[v]);
+    }
+    if (b != -1) {
+      int ab = makeEdge(a, b);
+      if (incident[a] != ab) {
+        splice(ab, incident[a]);
+      }
+      if (incident[b] != (ab ^ 1)) {
+        splice(ab ^ 1, incident[b]);
+      }
+    }
+    if (incident[a] != -1) {
+      outer = incident[a];
+    } else {
+      outer = -1;
+      last = a;
+    }
+  }
+
+  /*****************************************************************************
+   *                           MOVING
+   ****************************************************************************/
+  /** The coordinates from before move(), kept between calls to reuse them */
+  private double[] oldXs = new double[0];
+  private double[] oldYs = new double[0];
+
+  /**
+   * Moves every vertex to new coordinates and repairs the triangulation around
+   * them instead of building it again, for simulations that move all of their
+   * points a little every step:
+   *  1. Orientation tests on the triangles around the vertices that moved
+   *     find the ones that are turned inside out (or flat) at the new
+   *     coordinates, and a walk around the hull finds the corners where it
+   *     stopped being convex. The vertices of those are removed with
+   *     remove(), at their old coordinates, where the triangulation is still
+   *     valid. This repeats, looking only at the triangles that filled the
+   *     holes, until what is left is valid at the new coordinates. If the
+   *     vertices moved so far that the hull winds around more than once
+   *     (the triangles are folded over each other), or all of them lie on
+   *     one line, the triangulation is built again from scratch instead.
+   *  2. Lawson's flips make that Delaunay again: the edges of the triangles
+   *     around the vertices that moved or lost a neighbour are checked with
+   *     the incircle test, every edge that fails it is flipped and only the
+   *     edges around it are checked again.
+   *  3. The removed vertices are inserted again and get back their
+   *     constraints, and so are the vertices that lay on top of another
+   *     vertex (see insert()) but no longer do.
+   * Apart from comparing the old coordinates to the new ones and walking
+   * around the hull, the work is proportional to the amount of vertices that
+   * moved and of edges that broke, not to the size of the triangulation
+   * (when more than a quarter of the vertices moved, steps 1 and 2 go over
+   * all triangles, in the order they are stored, as that is faster).
+   * A vertex that is moved onto another one is left without edges until it
+   * is moved off it again. Vertices that were removed with remove(), or
+   * merged into another vertex through Delaunay.triangulation(all, merged),
+   * stay without edges. The Points the vertices were created from are
+   * forgotten, as they no longer hold the coordinates of their vertices.
+   *
+   * @param xs,ys the new x and y coordinates of every vertex
+   * @return the amount of vertices that had to be inserted again
+   * @throws IllegalArgumentException if xs or ys does not have exactly one
+   *         coordinate per vertex, or if moving made two constraints cross
+   */
+  public int move(double[] xs, double[] ys) {
+    if (xs.length != n || ys.length != n) {
+      throw new IllegalArgumentException("expected " + n + " coordinates, got "
+        + xs.length + " and " + ys.length + "!!");
+    }
+    if (oldXs.length != this.xs.length) {
+      oldXs = new double[this.xs.length];
+      oldYs = new double[this.ys.length];
+    }
+    System.arraycopy(this.xs, 0, oldXs, 0, n);
+    System.arraycopy(this.ys, 0, oldYs, 0, n);
+    System.arraycopy(xs, 0, this.xs, 0, n);
+    System.arraycopy(ys, 0, this.ys, 0, n);
+    points = null;
+    // the vertices taken out, a neighbour of each to look for it from, and
+    // the constraints they were part of (as pairs of vertices)
+    int[] removed = new int[16];
+    int[] near = new int[16];
+    int count = 0;
+    int[] segments = new int[16];
+    int ends = 0;
+    // the vertices whose triangles may be inverted: at first the ones that
+    // moved, then the neighbours of the vertices taken out in the last round,
+    // the only vertices with new triangles
+    int[] touched = new int[16];
+    int size = 0;
+    for (int v = 0; v < n; v++) {
+      if (incident[v] != -1 && (xs[v] != oldXs[v] || ys[v] != oldYs[v])) {
+        if (size == touched.length) {
+          touched = Arrays.copyOf(touched, 2 * size);
+        }
+        touched[size++] = v;
+      }
+    }
+    // every vertex that was touched in any round, whose edges are flipped
+    int[] repaired = Arrays.copyOf(touched, Math.max(size, 16));
+    int changed = size;
+    // once most vertices moved, going over all triangles and edges in the
+    // order they are stored is faster than going around every vertex
+    boolean sweep = 4 * size > n;
+    if (sweep) {
+      size = -1;
+    }
+    boolean[] marked = new boolean[n];
+    boolean scratch = false;
+    while (outer != -1) {
+      if (isFlat()) {
+        scratch = true;
+        break;
+      }
+      if (size == -1) {
+        markInverted(marked);
+      } else {
+        for (int i = 0; i < size; i++) {
+          int first = incident[touched[i]];
+          int e = first;
+          do {
+            markIfInverted(marked, e);
+            e = onext(e);
+          } while (e != first);
+        }
+      }
+      markReflex(marked);
+      if (stackSize == 0) {
+        // every triangle and hull corner turns the right way, but a large
+        // move can still have folded the triangles over each other
+        scratch = windings() != 1;
+        break;
+      }
+      size = 0;
+      swapCoordinates();
+      while (stackSize > 0) {
+        int v = stack[--stackSize];
+        int first = incident[v];
+        if (first == -1) {
+          continue;
+        }
+        if (count == removed.length) {
+          removed = Arrays.copyOf(removed, 2 * count);
+          near = Arrays.copyOf(near, 2 * count);
+        }
+        removed[count] = v;
+        near[count++] = dest(first);
+        int e = first;
+        do {
+          if (size == touched.length) {
+            touched = Arrays.copyOf(touched, 2 * size);
+          }
+          touched[size++] = dest(e);
+          if (constrained[e >> 1]) {
+            if (ends + 2 > segments.length) {
+              segments = Arrays.copyOf(segments, 2 * segments.length);
+            }
+            segments[ends++] = v;
+            segments[ends++] = dest(e);
+          }
+          e = onext(e);
+        } while (e != first);
+        remove(v);
+      }
+      swapCoordinates();
+      // skip the neighbours that were taken out themselves
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        if (incident[touched[i]] != -1) {
+          touched[kept++] = touched[i];
+        }
+      }
+      size = kept;
+      if (changed + size > repaired.length) {
+        repaired = Arrays.copyOf(repaired, 2 * (changed + size));
+      }
+      System.arraycopy(touched, 0, repaired, changed, size);
+      changed += size;
+    }
+    int moved = count;
+    if (scratch) {
+      // there are no triangles to repair, so triangulate from scratch
+      moved = 0;
+      for (int e = 0; e < top; e += 2) {
+        if (origin[e] != -1 && constrained[e >> 1]) {
+          if (ends + 2 > segments.length) {
+            segments = Arrays.copyOf(segments, 2 * segments.length);
+          }
+          segments[ends++] = origin[e];
+          segments[ends++] = origin[e ^ 1];
+        }
+      }
+      for (int v = 0; v < n; v++) {
+        marked[v] |= incident[v] != -1 || duplicateOf[v] != -1;
+        if (marked[v]) {
+          moved++;
+        }
+      }
+      rebuild(marked);
+    } else if (sweep) {
+      for (int e = 0; e < top; e += 2) {
+        if (isIllegal(e)) {
+          push(e);
+          flipIllegal();
+        }
+      }
+    } else {
+      // check every edge of the triangles around the repaired vertices: the
+      // edges out of them (once per edge) and the ones opposite them that no
+      // other repaired vertex has as its own
+      Arrays.fill(marked, false);
+      for (int i = 0; i < changed; i++) {
+        marked[repaired[i]] = true;
+      }
+      for (int i = 0; i < changed; i++) {
+        int v = repaired[i];
+        int first = incident[v];
+        if (first == -1) {
+          continue;
+        }
+        int e = first;
+        do {
+          int w = dest(e);
+          if (!marked[w] || v < w) {
+            push(e);
+          }
+          if (!marked[w] && !marked[dest(next[e])]) {
+            push(next[e]);
+          }
+          e = onext(e);
+        } while (e != first);
+      }
+      flipIllegal();
+    }
+    if (!scratch) {
+      for (int i = 0; i < count; i++) {
+        insertVertex(removed[i], near[i]);
+      }
+      // the vertices that lay on top of another one, if they no longer do
+      for (int v = 0; v < n; v++) {
+        int u = duplicateOf[v];
+        if (u != -1 && !same(u, v)) {
+          insertVertex(v, u);
+          moved++;
+        }
+      }
+    }
+    for (int i = 0; i < ends; i += 2) {
+      int a = segments[i];
+      int b = segments[i + 1];
+      if (incident[a] != -1 && incident[b] != -1) {
+        constrain(a, b);
+      }
+    }
+    return moved;
+  }
+
+  /* Exchanges the coordinates with the ones from before move() */
+  private void swapCoordinates() {
+    double[] swap = xs;
+    xs = oldXs;
+    oldXs = swap;
+    swap = ys;
+    ys = oldYs;
+    oldYs = swap;
+  }
+
+  /**
+   * Counts how many times the hull winds around the triangulation: how often
+   * its direction turns past pointing along the x axis while walking around
+   * it. When every triangle is counter-clockwise and every corner of the hull
+   * turns clockwise, the triangles cover the inside of the hull exactly that
+   * many times, so anything but 1 means they are folded over each other.
+   */
+  private int windings() {
+    int count = 0;
+    int e = outer;
+    do {
+      int f = next[e];
+      if (isUpward(e) && !isUpward(f)) {
+        count++;
+      }
+      e = f;
+    } while (e != outer);
+    return count;
+  }
+
+  /**
+   * Checks whether half-edge e points upwards, or along the x axis. Compares
+   * the coordinates directly, so the answer is exact.
+   */
+  private boolean isUpward(int e) {
+    int a = origin[e], b = origin[e ^ 1];
+    return ys[b] > ys[a] || (ys[b] == ys[a] && xs[b] > xs[a]);
+  }
+
+  /**
+   * Checks whether every edge lies on the outer face, which is the case if
+   * the edges form a path (all vertices lie on one line). Unlike isTriangle()
+   * this does not look at the coordinates, so it holds at either set of
+   * coordinates in move().
+   */
+  private boolean isFlat() {
+    int size = 0;
+    int e = outer;
+    do {
+      size++;
+      e = next[e];
+    } while (e != outer);
+    return size == 2 * edges;
+  }
+
+  /* Marks the corners of every triangle that is not counter-clockwise */
+  private void markInverted(boolean[] marked) {
+    for (int e = 0; e < top; e++) {
+      if (origin[e] != -1 && e < next[e] && e < prev[e]) {
+        markIfInverted(marked, e);
+      }
+    }
+  }
+
+  /**
+   * Marks the corners of the face left of e, and remembers them on the stack,
+   * if it is a triangle that is not counter-clockwise at the current
+   * coordinates. Triangles are recognised by their half-edges alone,
+   * see isFace(), since isTriangle() does not recognise them once they
+   * turned inside out.
+   */
+  private void markIfInverted(boolean[] marked, int e) {
+    if (isFace(e)) {
+      int a = origin[e], b = origin[next[e]], c = origin[prev[e]];
+      if (!ccw(a, b, c)) {
+        mark(marked, a);
+        mark(marked, b);
+        mark(marked, c);
+      }
+    }
+  }
+
+  /* Marks the corners where the hull does not turn clockwise */
+  private void markReflex(boolean[] marked) {
+    // the outside is on the left of the hull, so it has to turn clockwise
+    int e = outer;
+    do {
+      if (ccw(origin[e], origin[e ^ 1], dest(next[e]))) {
+        mark(marked, origin[e ^ 1]);
+      }
+      e = next[e];
+    } while (e != outer);
+  }
+
+  /**
+   * Checks whether the face left of e is a triangle without looking at the
+   * coordinates: it has three sides and is not the outer face (which only has
+   * three sides if the hull does).
+   */
+  private boolean isFace(int e) {
+    int f = next[e];
+    int g = next[f];
+    return next[g] == e && e != outer && f != outer && g != outer;
+  }
+
+  /* Marks vertex v and remembers it, if it was not marked yet */
+  private void mark(boolean[] marked, int v) {
+    if (!marked[v]) {
+      marked[v] = true;
+      push(v);
+    }
+  }
+
+  /**
+   * @return true if the edge of half-edge e is not a constraint, has a
+   *         triangle on both sides and is not Delaunay. Only for triangulations
+   *         without inverted triangles, see isFace().
+   */
+  private boolean isIllegal(int e) {
+    int s = e ^ 1;
+    return origin[e] != -1 && !constrained[e >> 1]
+      && isFace(e) && isFace(s)
+      && inCircle(origin[e], origin[s], origin[prev[e]], origin[prev[s]]);
+  }
+
+  /**
+   * Lawson's flips for a triangulation that is valid but not Delaunay: every
+   * remembered edge that is illegal is flipped, and the four edges around the
+   * quadrilateral it was the diagonal of are checked in turn.
+   */
+  private void flipIllegal() {
+    while (stackSize > 0) {
+      int e = stack[--stackSize];
+      if (isIllegal(e)) {
+        flip(e);
+        push(next[e]);
+        push(prev[e]);
+        push(next[e ^ 1]);
+        push(prev[e ^ 1]);
+      }
+    }
+  }
+
+  /* Throws away every edge and inserts the kept vertices again */
+  private void rebuild(boolean[] keep) {
+    Arrays.fill(incident, 0, n, -1);
+    top = 0;
+    free = -1;
+    edges = 0;
+    outer = -1;
+    last = -1;
+    double[] x = Arrays.copyOf(xs, n);
+    double[] y = Arrays.copyOf(ys, n);
+    for (int v : Delaunay.brio(x, y, new Random(n))) {
+      if (keep[v]) {
+        insertVertex(v, last);
+      }
+    }
+  }
+
+  /*****************************************************************************
+   *                           TRIANGLES
+   ****************************************************************************/
+  /**
+   * Checks whether half-edge e is the one that represents the triangle on its
+   * left: the smallest of the three half-edges around it.
+   */
+  private boolean isTriangleRoot(int e) {
+    if (origin[e] == -1) {
+      return false;
+    }
+    int f = next[e];
+    int g = next[f];
+    return next[g] == e && e < f && e < g
+      && ccw(origin[e], origin[f], origin[g]);
+  }
+
+  /**
+   * Gets every triangle as one half-edge with the triangle on its left, so
+   * that its corners are org(e), dest(e) and org(lprev(e)) in
+   * counter-clockwise order. Takes one pass over the half-edges and allocates
+   * nothing per triangle. The stream can be made parallel.
+   *
+   * @return a stream of one half-edge per triangle
+   */
+  public IntStream triangleEdges() {
+    return IntStream.range(0, top).filter(this::isTriangleRoot);
+  }
+
+  /**
+   * Gets every triangle as three vertex ids in counter-clockwise order, packed
+   * one after the other into a single array (an index buffer), in one pass
+   * over the half-edges.
+   *
+   * @return the corners of triangle i at [3i], [3i+1] and [3i+2]
+   */
+  public int[] triangles() {
+    // a triangulation has at most 2n - 5 triangles
+    int[] triangles = new int[3 * Math.max(2 * n, 1)];
+    int count = 0;
+    for (int e = 0; e < top; e++) {
+      if (isTriangleRoot(e)) {
+        triangles[count++] = origin[e];
+        triangles[count++] = origin[next[e]];
+        triangles[count++] = origin[prev[e]];
+      }
+    }
+    return Arrays.copyOf(triangles, count);
+  }
+
+  /*****************************************************************************
+   *                           EXPORT
+   ****************************************************************************/
+  /**
+   * Creates the adjacency list view of this triangulation, the same format
+   * Delaunay.delaunize() has always returned. Every list is ordered
+   * counter-clockwise around the point it belongs to.
+   *
+   * @return a graph in the form of an adjacency list: every vertex's Point
+   *         mapped to a list of the Points it is connected to
+   */
+  public HashMap<Point, ArrayList<Point>> toAdjacency() {
+    HashMap<Point, ArrayList<Point>> adj = new HashMap<>(2 * n);
+    Point[] ps = new Point[n];
+    for (int v = 0; v < n; v++) {
+      ps[v] = point(v);
+    }
+    for (int v = 0; v < n; v++) {
+      ArrayList<Point> ring = new ArrayList<>(6);
+      int first = incident[v];
+      if (first != -1) {
+        int e = first;
+        do {
+          ring.add(ps[dest(e)]);
+          e = onext(e);
+        } while (e != first);
+      }
+      if (!adj.containsKey(ps[v])) {
+        adj.put(ps[v], ring);
+      }
+    }
+    return adj;
+  }
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * The kernels of Kernels.java on the Vector API (jdk.incubator.vector): every
+ * loop handles as many elements at a time as the preferred vector species of
+ * the processor has double lanes, and leaves the elements that do not fill a
+ * whole vector to the plain loops in Kernels. The triangle kernels gather the
+ * coordinates of the corners through the id arrays. Every lane does the same
+ * operations in the same order as the plain loops, so the results are equal.
+ *
+ * Kernels loads this class by name when the module is there, see
+ * Kernels.vector(), so call the kernels through Kernels. Leave this file out
+ * of the compile when the module is not there.
+ *
+ * DEPENDENCIES:
+ *  Kernels.java
+ *  Predicates.java
+ *  jdk.incubator.vector (compile and run with
+ *  "--add-modules jdk.incubator.vector")
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+class VectorKernels implements Kernels.Vectorized {
+
+  /** The widest vector of doubles the processor supports */
+  private static final VectorSpecies<Double> SPECIES =
+    DoubleVector.SPECIES_PREFERRED;
+
+  /** The amount of doubles in a vector */
+  private static final int LANES = SPECIES.length();
+
+  @Override
+  public int lanes() {
+    return LANES;
+  }
+
+  /*****************************************************************************
+   *                           POINT KERNELS
+   ****************************************************************************/
+  /* See Kernels.distances() */
+  @Override
+  public void distances(double[] xs, double[] ys, int offset, double x,
+      double y, double[] out) {
+    int n = out.length;
+    int bound = SPECIES.loopBound(n);
+    for (int i = 0; i < bound; i += LANES) {
+      DoubleVector dx = DoubleVector.fromArray(SPECIES, xs, offset + i).sub(x);
+      DoubleVector dy = DoubleVector.fromArray(SPECIES, ys, offset + i).sub(y);
+      dx.mul(dx).add(dy.mul(dy)).sqrt().intoArray(out, i);
+    }
+    Kernels.distances(xs, ys, offset, x, y, out, bound, n);
+  }
+
+  /* See Kernels.inBox() */
+  @Override
+  public void inBox(double[] xs, double[] ys, int offset, double minX,
+      double minY, double maxX, double maxY, boolean[] out) {
+    int n = out.length;
+    int bound = SPECIES.loopBound(n);
+    for (int i = 0; i < bound; i += LANES) {
+      DoubleVector x = DoubleVector.fromArray(SPECIES, xs, offset + i);
+      DoubleVector y = DoubleVector.fromArray(SPECIES, ys, offset + i);
+      x.compare(VectorOperators.GE, minX)
+        .and(x.compare(VectorOperators.LE, maxX))
+        .and(y.compare(VectorOperators.GE, minY))
+        .and(y.compare(VectorOperators.LE, maxY))
+        .intoArray(out, i);
+    }
+    Kernels.inBox(xs, ys, offset, minX, minY, maxX, maxY, out, bound, n);
+  }
+
+  /*****************************************************************************
+   *                           TRIANGLE KERNELS
+   ****************************************************************************/
+  /*
+   * See Kernels.orientations(). The lanes whose determinant lies within its
+   * error bound of zero are left to Predicates.orient2d().
+   */
+  @Override
+  public void orientations(double[] xs, double[] ys, int offset,
+      int[][] corners, int[] out) {
+    int[] as = corners[0], bs = corners[1], cs = corners[2];
+    int n = out.length;
+    int bound = SPECIES.loopBound(n);
+    for (int i = 0; i < bound; i += LANES) {
+      DoubleVector cx = DoubleVector.fromArray(SPECIES, xs, offset, cs, i);
+      DoubleVector cy = DoubleVector.fromArray(SPECIES, ys, offset, cs, i);
+      DoubleVector acx = DoubleVector.fromArray(SPECIES, xs, offset, as, i)
+        .sub(cx);
+      DoubleVector acy = DoubleVector.fromArray(SPECIES, ys, offset, as, i)
+        .sub(cy);
+      DoubleVector bcx = DoubleVector.fromArray(SPECIES, xs, offset, bs, i)
+        .sub(cx);
+      DoubleVector bcy = DoubleVector.fromArray(SPECIES, ys, offset, bs, i)
+        .sub(cy);
+      DoubleVector left = acx.mul(bcy);
+      DoubleVector right = acy.mul(bcx);
+      DoubleVector det = left.sub(right);
+      DoubleVector error = left.abs().add(right.abs())
+        .mul(Predicates.ORIENT2D_BOUND);
+      long positive = det.compare(VectorOperators.GT, error).toLong();
+      long negative = det.neg().compare(VectorOperators.GT, error).toLong();
+      for (int lane = 0; lane < LANES; lane++) {
+        if ((positive >>> lane & 1) != 0) {
+          out[i + lane] = +1;
+        } else if ((negative >>> lane & 1) != 0) {
+          out[i + lane] = -1;
+        } else {
+          int a = offset + as[i + lane];
+          int b = offset + bs[i + lane];
+          int c = offset + cs[i + lane];
+          out[i + lane] = Predicates.orient2d(xs[a], ys[a], xs[b], ys[b],
+            xs[c], ys[c]);
+        }
+      }
+    }
+    Kernels.orientations(xs, ys, offset, corners, out, bound, n);
+  }
+
+  /* See Kernels.areas() */
+  @Override
+  public void areas(double[] xs, double[] ys, int offset, int[][] corners,
+      double[] out) {
+    int[] as = corners[0], bs = corners[1], cs = corners[2];
+    int n = out.length;
+    int bound = SPECIES.loopBound(n);
+    for (int i = 0; i < bound; i += LANES) {
+      DoubleVector ax = DoubleVector.fromArray(SPECIES, xs, offset, as, i);
+      DoubleVector ay = DoubleVector.fromArray(SPECIES, ys, offset, as, i);
+      DoubleVector bx = DoubleVector.fromArray(SPECIES, xs, offset, bs, i);
+      DoubleVector by = DoubleVector.fromArray(SPECIES, ys, offset, bs, i);
+      DoubleVector cx = DoubleVector.fromArray(SPECIES, xs, offset, cs, i);
+      DoubleVector cy = DoubleVector.fromArray(SPECIES, ys, offset, cs, i);
+      DoubleVector area = ax.mul(by.sub(cy)).add(bx.mul(cy.sub(ay)))
+        .add(cx.mul(ay.sub(by)));
+      area.abs().div(2).intoArray(out, i);
+    }
+    Kernels.areas(xs, ys, offset, corners, out, bound, n);
+  }
+
+  /* See Kernels.circumcentres() */
+  @Override
+  public void circumcentres(double[] xs, double[] ys, int offset,
+      int[][] corners, double[] cxs, double[] cys) {
+    int[] as = corners[0], bs = corners[1], cs = corners[2];
+    int n = cxs.length;
+    int bound = SPECIES.loopBound(n);
+    for (int i = 0; i < bound; i += LANES) {
+      DoubleVector ax = DoubleVector.fromArray(SPECIES, xs, offset, as, i);
+      DoubleVector ay = DoubleVector.fromArray(SPECIES, ys, offset, as, i);
+      DoubleVector bx = DoubleVector.fromArray(SPECIES, xs, offset, bs, i)
+        .sub(ax);
+      DoubleVector by = DoubleVector.fromArray(SPECIES, ys, offset, bs, i)
+        .sub(ay);
+      DoubleVector cx = DoubleVector.fromArray(SPECIES, xs, offset, cs, i)
+        .sub(ax);
+      DoubleVector cy = DoubleVector.fromArray(SPECIES, ys, offset, cs, i)
+        .sub(ay);
+      DoubleVector bb = bx.mul(bx).add(by.mul(by));
+      DoubleVector cc = cx.mul(cx).add(cy.mul(cy));
+      DoubleVector d = bx.mul(cy).sub(by.mul(cx)).mul(2);
+      ax.add(cy.mul(bb).sub(by.mul(cc)).div(d)).intoArray(cxs, i);
+      ay.add(bx.mul(cc).sub(cx.mul(bb)).div(d)).intoArray(cys, i);
+    }
+    Kernels.circumcentres(xs, ys, offset, corners, cxs, cys, bound, n);
+  }
+}
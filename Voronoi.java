@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * The Voronoi diagram of a collection of points (sites), computed as the dual
+ * of their Delaunay triangulation: the circumcentre of every triangle is a
+ * Voronoi vertex, and the cell of a site is the polygon formed by the
+ * circumcentres of the triangles around it, in counter-clockwise order.
+ *
+ * Everything is stored in primitive arrays. The Voronoi vertices are the
+ * coordinates xs[i], ys[i], and the cell of site v is the range
+ * [cellStart(v), cellEnd(v)) of vertex indices. Cells of sites on the hull are
+ * unbounded, so every cell is clipped to a bounding box given by the caller.
+ * Cells that lie inside the box share the circumcentres of their neighbours;
+ * cells that do not are clipped (by the bisectors between the site and its
+ * neighbours) and get vertices of their own.
+ *
+ * DEPENDENCIES:
+ *  Point.java
+ *  PointBuffer.java
+ *  Triangulation.java
+ *  Delaunay.java
+ * Available at: https://github.com/HeinrichWizardKreuser/ComputationalGeometry
+ *
+ * HOW TO USE:
+ *  Create an arraylist of Points (the sites) and call Voronoi.of() with it and
+ *  the bounding box to clip the cells to. Alternatively pass a Triangulation
+ *  (e.g. from Delaunay.triangulation()) to the constructor.
+ *  The cell of site i (the point at index i) is cell(i), or, without creating
+ *  any Points, x(vertex(k)), y(vertex(k)) for k from cellStart(i) to
+ *  cellEnd(i).
+ *
+ * @author Heinrich Kreuser
+ *
+ * Date: 17 October 2026
+ *
+ *         MIT License
+ *
+ *         Copyright (c) [2019] [Heinrich Kreuser]
+ *
+ *         Permission is hereby granted, free of charge, to any person obtaining
+ *         a copy of this software and associated documentation files (the
+ *         "Software"), to deal in the Software without restriction, including
+ *         without limitation the rights to use, copy, modify, merge, publish,
+ *         distribute, sublicense, and/or sell copies of the Software, and to
+ *         permit persons to whom the Software is furnished to do so, subject to
+ *         the following conditions:
+ *
+ *         The above copyright notice and this permission notice shall be
+ *         included in all copies or substantial portions of the Software.
+ *
+ *         THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *         EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *         MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *         NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS
+ *         BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN
+ *         ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ *         CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *         SOFTWARE.
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class Voronoi {
+
+  /** The triangulation this is the dual of */
+  private final Triangulation t;
+
+  /** The bounding box the cells are clipped to */
+  private final double minX, minY, maxX, maxY;
+
+  /** The coordinates of the Voronoi vertices, the circumcentres first */
+  private double[] xs;
+  private double[] ys;
+
+  /** The amount of Voronoi vertices */
+  private int vertices = 0;
+
+  /** The amount of circumcentres (triangles) at the front of xs and ys */
+  private int centres = 0;
+
+  /** The Voronoi vertices of every cell, one cell after the other */
+  private int[] cells;
+
+  /** Where the cell of every site starts in cells, and where the next does */
+  private int[] start;
+
+  /*****************************************************************************
+   *                           CONSTRUCTORS
+   ****************************************************************************/
+  /**
+   * Creates the Voronoi diagram of the given sites.
+   *
+   * @param sites the list of all Points on some map
+   * @param minX,minY,maxX,maxY the bounding box to clip the cells to
+   * @return the Voronoi diagram, where cell i belongs to the point at index i
+   *         in sites
+   */
+  public static Voronoi of(ArrayList<Point> sites, double minX, double minY,
+      double maxX, double maxY) {
+    return new Voronoi(Delaunay.triangulation(sites), minX, minY, maxX, maxY);
+  }
+
+  /**
+   * Same as the above, but with the sites in the given buffer.
+   *
+   * @param sites the points on some map
+   * @param minX,minY,maxX,maxY the bounding box to clip the cells to
+   * @return the Voronoi diagram, where cell i belongs to point i of sites
+   */
+  public static Voronoi of(PointBuffer sites, double minX, double minY,
+      double maxX, double maxY) {
+    return new Voronoi(Delaunay.triangulation(sites), minX, minY, maxX, maxY);
+  }
+
+  /**
+   * Creates the Voronoi diagram of the vertices of the given Delaunay
+   * triangulation.
+   *
+   * @param t the delaunay-triangulation of the sites
+   * @param minX,minY,maxX,maxY the bounding box to clip the cells to
+   */
+  public Voronoi(Triangulation t, double minX, double minY, double maxX,
+      double maxY) {
+    if (minX > maxX || minY > maxY) {
+      throw new IllegalArgumentException("the bounding box is empty!!");
+    }
+    this.t = t;
+    this.minX = minX;
+    this.minY = minY;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    int[] centre = circumcentres();
+    buildCells(centre);
+  }
+
+  /**
+   * Computes the circumcentre of every triangle in one pass over the
+   * half-edges.
+   *
+   * @return the index of the circumcentre of the triangle left of every
+   *         half-edge, or -1 if there is no triangle on its left
+   */
+  private int[] circumcentres() {
+    int[] centre = new int[t.top];
+    Arrays.fill(centre, -1);
+    xs = new double[Math.max(2 * t.n, 4)];
+    ys = new double[xs.length];
+    int[] origin = t.origin;
+    int[] next = t.next;
+    t.triangleEdges().forEachOrdered(e -> {
+      int f = next[e];
+      int g = next[f];
+      int a = origin[e], b = origin[f], c = origin[g];
+      // relative to a, to keep the products small
+      double ax = t.xs[a], ay = t.ys[a];
+      double bx = t.xs[b] - ax, by = t.ys[b] - ay;
+      double cx = t.xs[c] - ax, cy = t.ys[c] - ay;
+      double bb = bx * bx + by * by;
+      double cc = cx * cx + cy * cy;
+      double d = 2 * (bx * cy - by * cx);
+      int i = add(ax + (cy * bb - by * cc) / d, ay + (bx * cc - cx * bb) / d);
+      centre[e] = centre[f] = centre[g] = i;
+    });
+    centres = vertices;
+    return centre;
+  }
+
+  /**
+   * Collects the circumcentres around every site into its cell, or clips the
+   * cell to the bounding box if it is unbounded or does not fit in it.
+   */
+  private void buildCells(int[] centre) {
+    int n = t.n;
+    start = new int[n + 1];
+    cells = new int[Math.max(6 * n, 4)];
+    int count = 0;
+    // without any edges there is only one site (possibly many times over)
+    int only = (t.outer != -1 || n == 0) ? -1 : (t.last != -1) ? t.last : 0;
+    for (int v = 0; v < n; v++) {
+      start[v] = count;
+      int first = t.incident[v];
+      if (first == -1) {
+        if (v == only) {
+          // its cell is the whole box
+          count = clip(v, count);
+        }
+        continue;
+      }
+      // the cell fits if it is bounded and all its vertices lie in the box
+      boolean fits = true;
+      int degree = 0;
+      int e = first;
+      do {
+        int i = centre[e];
+        if (i == -1 || xs[i] < minX || xs[i] > maxX
+            || ys[i] < minY || ys[i] > maxY) {
+          fits = false;
+          break;
+        }
+        degree++;
+        e = t.onext(e);
+      } while (e != first);
+      if (!fits) {
+        count = clip(v, count);
+        continue;
+      }
+      if (count + degree > cells.length) {
+        cells = Arrays.copyOf(cells, 2 * (count + degree));
+      }
+      e = first;
+      do {
+        cells[count++] = centre[e];
+        e = t.onext(e);
+      } while (e != first);
+    }
+    start[n] = count;
+  }
+
+  /*****************************************************************************
+   *                           CLIPPING
+   ****************************************************************************/
+  /** Scratch polygons for clip() */
+  private double[] px = new double[16], py = new double[16];
+  private double[] qx = new double[16], qy = new double[16];
+
+  /**
+   * Computes the cell of site v as the bounding box cut by the bisector
+   * between v and each of its neighbours, and adds its corners as vertices of
+   * their own.
+   *
+   * @param v the site
+   * @param count the amount of entries in cells so far
+   * @return the amount of entries in cells after adding the cell of v
+   */
+  private int clip(int v, int count) {
+    int degree = t.degree(v);
+    if (px.length < degree + 4) {
+      px = new double[2 * (degree + 4)];
+      py = new double[px.length];
+      qx = new double[px.length];
+      qy = new double[px.length];
+    }
+    // the box, counter-clockwise, relative to v
+    double vx = t.xs[v], vy = t.ys[v];
+    px[0] = minX - vx; py[0] = minY - vy;
+    px[1] = maxX - vx; py[1] = minY - vy;
+    px[2] = maxX - vx; py[2] = maxY - vy;
+    px[3] = minX - vx; py[3] = maxY - vy;
+    int size = 4;
+    int first = t.incident[v];
+    int e = first;
+    if (first != -1) {
+      do {
+        int u = t.dest(e);
+        size = cut(size, t.xs[u] - vx, t.ys[u] - vy);
+        e = t.onext(e);
+      } while (e != first && size > 0);
+    }
+    if (count + size > cells.length) {
+      cells = Arrays.copyOf(cells, 2 * (count + size));
+    }
+    for (int i = 0; i < size; i++) {
+      cells[count++] = add(px[i] + vx, py[i] + vy);
+    }
+    return count;
+  }
+
+  /**
+   * Cuts the polygon in px, py down to the points at least as close to the
+   * origin (the site) as to the neighbour at ux, uy: the points p with
+   * p.u <= |u|^2 / 2 (Sutherland-Hodgman against a single half-plane).
+   *
+   * @return the amount of corners left
+   */
+  private int cut(int size, double ux, double uy) {
+    double limit = (ux * ux + uy * uy) / 2;
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      int j = (i + 1 == size) ? 0 : i + 1;
+      double di = px[i] * ux + py[i] * uy - limit;
+      double dj = px[j] * ux + py[j] * uy - limit;
+      if (di <= 0) {
+        qx[kept] = px[i];
+        qy[kept++] = py[i];
+      }
+      if ((di < 0 && dj > 0) || (di > 0 && dj < 0)) {
+        // the edge crosses the bisector
+        double s = di / (di - dj);
+        qx[kept] = px[i] + s * (px[j] - px[i]);
+        qy[kept++] = py[i] + s * (py[j] - py[i]);
+      }
+    }
+    double[] swap = px;
+    px = qx;
+    qx = swap;
+    swap = py;
+    py = qy;
+    qy = swap;
+    return kept;
+  }
+
+  /* Adds a Voronoi vertex and returns its index */
+  private int add(double x, double y) {
+    if (vertices == xs.length) {
+      xs = Arrays.copyOf(xs, 2 * vertices);
+      ys = Arrays.copyOf(ys, 2 * vertices);
+    }
+    xs[vertices] = x;
+    ys[vertices] = y;
+    return vertices++;
+  }
+
+  /*****************************************************************************
+   *                           ACCESS
+   ****************************************************************************/
+  /** @return the triangulation this is the dual of */
+  public Triangulation triangulation() {
+    return t;
+  }
+
+  /** @return the amount of sites (and cells) */
+  public int size() {
+    return t.n;
+  }
+
+  /** @return the amount of Voronoi vertices */
+  public int vertexCount() {
+    return vertices;
+  }
+
+  /**
+   * @return the amount of circumcentres, which are the Voronoi vertices with
+   *         indices below this, in the order of Triangulation.triangles()
+   */
+  public int circumcentreCount() {
+    return centres;
+  }
+
+  /** @return a copy of the Voronoi vertices */
+  public PointBuffer vertices() {
+    return new PointBuffer(Arrays.copyOf(xs, vertices),
+      Arrays.copyOf(ys, vertices));
+  }
+
+  /** @return the x coordinate of Voronoi vertex i */
+  public double x(int i) {
+    return xs[i];
+  }
+
+  /** @return the y coordinate of Voronoi vertex i */
+  public double y(int i) {
+    return ys[i];
+  }
+
+  /** @return where the vertices of the cell of site v start */
+  public int cellStart(int v) {
+    return start[v];
+  }
+
+  /** @return where the vertices of the cell of site v end (exclusive) */
+  public int cellEnd(int v) {
+    return start[v + 1];
+  }
+
+  /** @return the index of the k-th Voronoi vertex over all cells */
+  public int vertex(int k) {
+    return cells[k];
+  }
+
+  /**
+   * Gets the cell of a site as Points.
+   *
+   * @param v the site
+   * @return the corners of the (clipped) cell of v in counter-clockwise
+   *         order, empty if v shares its location with another site
+   */
+  public Point[] cell(int v) {
+    Point[] cell = new Point[start[v + 1] - start[v]];
+    for (int k = start[v]; k < start[v + 1]; k++) {
+      cell[k - start[v]] = new Point(xs[cells[k]], ys[cells[k]]);
+    }
+    return cell;
+  }
+}